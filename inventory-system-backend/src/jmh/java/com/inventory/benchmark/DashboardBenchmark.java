@@ -0,0 +1,32 @@
+package com.inventory.benchmark;
+
+import com.inventory.dto.DashboardDTO;
+import com.inventory.service.DashboardAggregates;
+import com.inventory.service.impl.DashboardServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas del dashboard desde los agregados en memoria y desde las consultas
+ * SQL equivalentes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DashboardBenchmark {
+    
+    @Benchmark
+    public DashboardDTO getDashboardMetrics(InventoryState state) {
+        return state.bean(DashboardServiceImpl.class).getDashboardMetrics();
+    }
+    
+    @Benchmark
+    public DashboardDTO loadFromDatabase(InventoryState state) {
+        return state.bean(DashboardAggregates.class).loadFromDatabase();
+    }
+}
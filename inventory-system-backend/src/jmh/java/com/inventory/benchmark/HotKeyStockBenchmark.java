@@ -0,0 +1,107 @@
+package com.inventory.benchmark;
+
+import com.inventory.service.ProductService;
+import com.inventory.service.StockMovementJournal;
+import com.inventory.service.StockUpdateDispatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entradas de stock con popularidad de Zipf (unos pocos productos reciben la
+ * mayoría de los movimientos) por cada camino de escritura: directo al
+ * servicio, por las colas por producto del despachador o por el commit
+ * agrupado del diario. Con exponentes altos casi todas las escrituras chocan
+ * en las mismas filas, que es el caso que el despachador y el diario agrupan.
+ *
+ * mvn -P benchmark verify -Djmh.include=HotKey -Djmh.args="-p exponente=0.8,1.2"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HotKeyStockBenchmark {
+    
+    private static final int MUESTRAS = 1 << 16;
+    
+    @State(Scope.Benchmark)
+    public static class WriterState extends InventoryState {
+        
+        @Param({"directo", "despachador", "diario"})
+        public String escritura;
+        
+        @Param("1.2")
+        public double exponente;
+        
+        // Secuencia de ids precalculada: muestrear durante la medición costaría más que encolar
+        int[] ids;
+        Escritor escritor;
+        
+        @Override
+        protected String[] args() {
+            return new String[] {
+                "--inventory.stock.dispatcher.enabled=" + "despachador".equals(escritura),
+                "--inventory.stock.journal.enabled=" + "diario".equals(escritura)
+            };
+        }
+        
+        @Override
+        protected void started() {
+            ids = zipf(productos, exponente, MUESTRAS, new SplittableRandom(42));
+            escritor = switch (escritura) {
+                case "despachador" -> bean(StockUpdateDispatcher.class)::updateStock;
+                case "diario" -> bean(StockMovementJournal.class)::updateStock;
+                default -> bean(ProductService.class)::updateStock;
+            };
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Cursor {
+        int siguiente;
+        
+        @Setup(Level.Trial)
+        public void start(WriterState state) {
+            // Cada hilo empieza en un punto distinto de la secuencia
+            siguiente = (int) (Thread.currentThread().getId() * 7919) & (MUESTRAS - 1);
+        }
+    }
+    
+    @FunctionalInterface
+    interface Escritor {
+        void updateStock(Long id, Integer cantidad, String tipo, String motivo);
+    }
+    
+    @Benchmark
+    @Threads(32)
+    public void updateStockZipf(WriterState state, Cursor cursor) {
+        long id = state.ids[cursor.siguiente];
+        cursor.siguiente = (cursor.siguiente + 1) & (MUESTRAS - 1);
+        state.escritor.updateStock(id, 1, "ENTRADA", "benchmark");
+    }
+    
+    // Muestras de rangos de Zipf por la inversa de la distribución acumulada; el
+    // rango 1 es el producto 1, así que los productos calientes son los primeros ids
+    private static int[] zipf(int n, double exponente, int muestras, SplittableRandom random) {
+        double[] acumulada = new double[n];
+        double total = 0;
+        for (int rango = 0; rango < n; rango++) {
+            total += 1.0 / Math.pow(rango + 1, exponente);
+            acumulada[rango] = total;
+        }
+        int[] ids = new int[muestras];
+        for (int i = 0; i < muestras; i++) {
+            int rango = Arrays.binarySearch(acumulada, random.nextDouble() * total);
+            ids[i] = Math.min(rango < 0 ? -rango - 1 : rango, n - 1) + 1;
+        }
+        return ids;
+    }
+}
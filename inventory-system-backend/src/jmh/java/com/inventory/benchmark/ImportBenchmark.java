@@ -0,0 +1,71 @@
+package com.inventory.benchmark;
+
+import com.inventory.dto.FormatoArchivo;
+import com.inventory.dto.ImportResultDTO;
+import com.inventory.service.impl.ProductImportServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importación CSV de un fichero grande de una sola vez. Una de cada cien
+ * descripciones lleva comillas y saltos de línea, y una de cada diez mil filas
+ * tiene un precio que no cabe en la columna, así que su bloque se reintenta
+ * fila a fila. Imprime filas por segundo y fallidas de cada importación.
+ *
+ * Cada importación se queda en la base de datos en memoria y en el índice de
+ * búsqueda, así que con más iteraciones el heap se agota:
+ *
+ * mvn -P benchmark verify -Djmh.include=Import -Djmh.warmup=1 -Djmh.iterations=1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ImportBenchmark {
+    
+    @Param("500000")
+    public int filas;
+    
+    private byte[] csv;
+    
+    @Setup(Level.Trial)
+    public void generate(InventoryState state) {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(filas * 80);
+        builder.append("nombre,descripcion,precio,stockActual,stockMinimo,categoriaId\n");
+        for (int fila = 1; fila <= filas; fila++) {
+            String descripcion = fila % 100 == 0
+                ? "\"Importado " + fila + ",\nmedida \"\"grande\"\"\""
+                : "Importado " + fila;
+            String precio = fila % 10_000 == 0 ? "1000000000.00" : random.nextInt(10_000) + ".99";
+            builder.append("Producto importado ").append(fila).append(',')
+                .append(descripcion).append(',')
+                .append(precio).append(',')
+                .append(random.nextInt(500)).append(',')
+                .append(random.nextInt(20)).append(',')
+                .append(1 + random.nextInt(state.categorias)).append('\n');
+        }
+        csv = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Benchmark
+    public ImportResultDTO importCsv(InventoryState state) {
+        ImportResultDTO result = state.bean(ProductImportServiceImpl.class)
+            .importProducts(new ByteArrayInputStream(csv), FormatoArchivo.CSV);
+        System.out.printf("%n%d filas: %d importadas, %d fallidas, %.0f filas/s%n",
+            result.getTotalFilas(), result.getImportadas(), result.getFallidas(), result.getFilasPorSegundo());
+        return result;
+    }
+}
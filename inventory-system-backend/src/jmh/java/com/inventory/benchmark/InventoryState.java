@@ -0,0 +1,79 @@
+package com.inventory.benchmark;
+
+import com.inventory.InventorySystemApplication;
+import com.inventory.service.DatasetSeeder;
+import com.inventory.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Contexto de Spring sobre H2 compartido por todos los hilos de un benchmark.
+ * Los datos se cargan antes de ApplicationReadyEvent, así que el índice de
+ * búsqueda, el conjunto de bajo stock y los agregados del dashboard arrancan
+ * con ellos igual que en producción.
+ */
+@State(Scope.Benchmark)
+public class InventoryState {
+    
+    @Param("50")
+    public int categorias;
+    
+    @Param("20000")
+    public int productos;
+    
+    @Param("200000")
+    public int movimientos;
+    
+    @Param("1.0")
+    public double zipf;
+    
+    private ConfigurableApplicationContext context;
+    
+    @Setup(Level.Trial)
+    public void start() throws InterruptedException {
+        DatasetSeeder.Spec spec = new DatasetSeeder.Spec(categorias, productos, movimientos, 365, zipf, 42);
+        ApplicationListener<ApplicationStartedEvent> seeder = event ->
+            event.getApplicationContext().getBean(DatasetSeeder.class).seed(spec);
+        
+        context = new SpringApplicationBuilder(InventorySystemApplication.class)
+            .profiles("benchmark")
+            .web(WebApplicationType.NONE)
+            .listeners(seeder)
+            .run(args());
+        
+        ProductSearchIndex index = bean(ProductSearchIndex.class);
+        while (!index.isReady()) {
+            Thread.sleep(50);
+        }
+        started();
+    }
+    
+    // Argumentos de línea de comandos: tienen prioridad sobre los ficheros de propiedades
+    protected String[] args() {
+        return new String[0];
+    }
+    
+    // Para los estados que extienden este: JMH no garantiza el orden de los @Setup heredados
+    protected void started() {
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+    
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
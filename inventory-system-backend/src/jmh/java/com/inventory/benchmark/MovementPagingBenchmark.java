@@ -0,0 +1,62 @@
+package com.inventory.benchmark;
+
+import com.inventory.controller.StockMovementController;
+import com.inventory.dto.CursorPageDTO;
+import com.inventory.dto.StockMovementDTO;
+import com.inventory.entity.StockMovement;
+import com.inventory.repository.StockMovementRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Historial de movimientos a distintas profundidades: paginación por offset
+ * (con COUNT) frente a paginación por cursor desde el mismo punto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MovementPagingBenchmark {
+    
+    private static final int SIZE = 20;
+    
+    @Param({"0", "500", "5000"})
+    public int page;
+    
+    private String cursor;
+    
+    @Setup(Level.Trial)
+    public void setUp(InventoryState state) {
+        if (page == 0) {
+            return;
+        }
+        // El cursor apunta al último elemento de la página anterior, igual que lo devolvería la API
+        StockMovement previous = state.bean(StockMovementRepository.class)
+            .findAllOrderByFechaDesc(PageRequest.of(page * SIZE - 1, 1))
+            .getContent().get(0);
+        String raw = previous.getFechaMovimiento() + "," + previous.getId();
+        cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @Benchmark
+    public ResponseEntity<Slice<StockMovementDTO>> offsetPage(InventoryState state) {
+        return state.bean(StockMovementController.class).getAllMovements(page, SIZE, "exacto");
+    }
+    
+    @Benchmark
+    public ResponseEntity<CursorPageDTO<StockMovementDTO>> cursorPage(InventoryState state) {
+        return state.bean(StockMovementController.class).getMovementsByCursor(cursor, SIZE);
+    }
+}
@@ -0,0 +1,61 @@
+package com.inventory.benchmark;
+
+import com.inventory.controller.CategoryController;
+import com.inventory.controller.ProductController;
+import com.inventory.controller.StockMovementController;
+import com.inventory.dto.CategoryDTO;
+import com.inventory.dto.ProductDTO;
+import com.inventory.dto.StockMovementDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de una página según cómo se obtiene el total: COUNT en cada petición
+ * (exacto), total cacheado (aproximado) o sin total (ninguno). La diferencia
+ * con "exacto" es la latencia ahorrada por página.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PageTotalsBenchmark {
+    
+    private static final int SIZE = 20;
+    
+    @Param({"exacto", "aproximado", "ninguno"})
+    public String total;
+    
+    @Benchmark
+    public ResponseEntity<Slice<ProductDTO>> products(InventoryState state) {
+        return state.bean(ProductController.class).getAllProducts(0, SIZE, "id", "DESC", total, request());
+    }
+    
+    @Benchmark
+    public ResponseEntity<Slice<ProductDTO>> productsByCategory(InventoryState state) {
+        return state.bean(ProductController.class).getProductsByCategory(1L, 0, SIZE, total, request());
+    }
+    
+    @Benchmark
+    public ResponseEntity<Slice<CategoryDTO>> categories(InventoryState state) {
+        return state.bean(CategoryController.class).getAllCategories(0, SIZE, "nombre", total, request());
+    }
+    
+    @Benchmark
+    public ResponseEntity<Slice<StockMovementDTO>> movements(InventoryState state) {
+        return state.bean(StockMovementController.class).getAllMovements(0, SIZE, total);
+    }
+    
+    // Petición sin If-None-Match: la comprobación de ETag nunca corta la respuesta
+    private static ServletWebRequest request() {
+        return new ServletWebRequest(new MockHttpServletRequest());
+    }
+}
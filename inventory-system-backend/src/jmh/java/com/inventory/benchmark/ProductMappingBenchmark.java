@@ -0,0 +1,69 @@
+package com.inventory.benchmark;
+
+import com.inventory.dto.CategoryDTO;
+import com.inventory.dto.ProductDTO;
+import com.inventory.entity.Product;
+import com.inventory.repository.ProductRepository;
+import com.inventory.service.impl.ProductServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.AopTestUtils;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de construir ProductDTO: mapeo de entidades ya cargadas (el
+ * convertToDTO privado del servicio) frente a la proyección directa en la
+ * consulta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductMappingBenchmark {
+    
+    private static final int PAGE_SIZE = 100;
+    
+    private List<Product> products;
+    private CategoryDTO category;
+    private Object service;
+    private MethodHandle convertToDTO;
+    
+    @Setup(Level.Trial)
+    public void setUp(InventoryState state) throws ReflectiveOperationException {
+        products = state.bean(ProductRepository.class).findAll(PageRequest.of(0, 1000)).getContent();
+        category = new CategoryDTO();
+        category.setId(1L);
+        category.setNombre("Categoría 1");
+        
+        service = AopTestUtils.getUltimateTargetObject(state.bean(ProductServiceImpl.class));
+        Method method = ProductServiceImpl.class.getDeclaredMethod("convertToDTO", Product.class, CategoryDTO.class);
+        method.setAccessible(true);
+        convertToDTO = MethodHandles.lookup().unreflect(method);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public void convertEntities(Blackhole blackhole) throws Throwable {
+        for (Product product : products) {
+            blackhole.consume((ProductDTO) convertToDTO.invoke(service, product, category));
+        }
+    }
+    
+    @Benchmark
+    public Page<ProductDTO> projectionPage(InventoryState state) {
+        return state.bean(ProductRepository.class).findAllAsDTO(PageRequest.of(0, PAGE_SIZE));
+    }
+}
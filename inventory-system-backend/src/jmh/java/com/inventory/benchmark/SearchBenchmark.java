@@ -0,0 +1,44 @@
+package com.inventory.benchmark;
+
+import com.inventory.dto.ProductDTO;
+import com.inventory.repository.ProductRepository;
+import com.inventory.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsqueda de productos por subcadena: índice de trigramas del servicio frente
+ * a la consulta LIKE que usa mientras el índice se construye. Con el catálogo
+ * por defecto de InventoryState (20.000 productos); el índice con un millón de
+ * productos se mide aparte en SearchIndexScaleBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+    
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+    
+    // Término frecuente, término compuesto poco frecuente y término corto sin trigramas
+    @Param({"tornillo", "acero inoxidable 1", "pv"})
+    public String query;
+    
+    @Benchmark
+    public Page<ProductDTO> searchIndex(InventoryState state) {
+        return state.bean(ProductService.class).searchProducts(query, null, PAGE);
+    }
+    
+    @Benchmark
+    public Page<ProductDTO> searchLike(InventoryState state) {
+        return state.bean(ProductRepository.class).searchProducts(query, PAGE);
+    }
+}
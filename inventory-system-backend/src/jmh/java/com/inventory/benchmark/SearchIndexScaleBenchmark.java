@@ -0,0 +1,95 @@
+package com.inventory.benchmark;
+
+import com.inventory.event.ProductChangedEvent;
+import com.inventory.event.ProductSnapshot;
+import com.inventory.repository.ProductRepository;
+import com.inventory.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Índice de búsqueda con un catálogo grande, sin Spring ni base de datos: los
+ * productos sintéticos (mismo vocabulario que DatasetSeeder) se indexan
+ * directamente. Al preparar cada trial imprime el heap retenido por el índice.
+ *
+ * mvn -P benchmark verify -Djmh.include=SearchIndexScale
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SearchIndexScaleBenchmark {
+    
+    private static final String[] PALABRAS = {
+        "tornillo", "tuerca", "arandela", "cable", "martillo", "taladro", "broca", "sierra", "cinta",
+        "pintura", "brocha", "rodillo", "guante", "casco", "lija", "pegamento", "silicona", "manguera",
+        "grifo", "bombilla", "enchufe", "interruptor", "tubo", "codo", "válvula", "llave", "alicate",
+        "destornillador", "nivel", "metro", "escalera", "carretilla", "pala", "rastrillo", "maceta"
+    };
+    private static final String[] MATERIALES = {
+        "acero", "acero inoxidable", "aluminio", "latón", "cobre", "plástico", "madera", "goma", "pvc"
+    };
+    
+    @Param("1000000")
+    public int productos;
+    
+    // Término frecuente, término compuesto poco frecuente y término corto sin trigramas
+    @Param({"tornillo", "acero inoxidable 1", "pv"})
+    public String query;
+    
+    private ProductSearchIndex index;
+    
+    @Setup(Level.Trial)
+    public void build() {
+        long antes = usedHeap();
+        // El repositorio solo se usa en la carga inicial, que aquí no se lanza
+        ProductRepository repository = (ProductRepository) Proxy.newProxyInstance(
+            ProductRepository.class.getClassLoader(), new Class<?>[] {ProductRepository.class},
+            (proxy, method, args) -> {
+                throw new UnsupportedOperationException(method.getName());
+            });
+        index = new ProductSearchIndex(repository);
+        
+        Random random = new Random(42);
+        for (int id = 1; id <= productos; id++) {
+            String palabra = PALABRAS[random.nextInt(PALABRAS.length)];
+            String material = MATERIALES[random.nextInt(MATERIALES.length)];
+            ProductSnapshot snapshot = new ProductSnapshot((long) id,
+                Character.toUpperCase(palabra.charAt(0)) + palabra.substring(1) + " de " + material + " " + id,
+                "Referencia " + id + ": " + palabra + " de " + material + " para uso profesional",
+                BigDecimal.ONE, 10, 5, 1L + random.nextInt(50));
+            index.onProductChanged(new ProductChangedEvent(null, snapshot));
+        }
+        System.out.printf("%nÍndice con %d productos: %d MB retenidos%n", productos, (usedHeap() - antes) >> 20);
+    }
+    
+    @Benchmark
+    public ProductSearchIndex.SearchResult firstPage() {
+        return index.search(query, null, 0, 20);
+    }
+    
+    @Benchmark
+    public ProductSearchIndex.SearchResult deepPage() {
+        return index.search(query, null, 1000, 20);
+    }
+    
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
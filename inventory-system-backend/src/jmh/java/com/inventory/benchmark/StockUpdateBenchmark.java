@@ -0,0 +1,45 @@
+package com.inventory.benchmark;
+
+import com.inventory.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entradas de stock concurrentes: sobre unos pocos productos (contención en
+ * la misma fila) y repartidas por todo el catálogo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StockUpdateBenchmark {
+    
+    private static final int PRODUCTOS_CALIENTES = 4;
+    
+    @Benchmark
+    @Threads(8)
+    public void updateStockContended(InventoryState state) {
+        long id = 1 + ThreadLocalRandom.current().nextInt(PRODUCTOS_CALIENTES);
+        state.bean(ProductService.class).updateStock(id, 1, "ENTRADA", "benchmark");
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public void updateStockSpread(InventoryState state) {
+        long id = 1 + ThreadLocalRandom.current().nextInt(state.productos);
+        state.bean(ProductService.class).updateStock(id, 1, "ENTRADA", "benchmark");
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public void updateStockSingleThread(InventoryState state) {
+        long id = 1 + ThreadLocalRandom.current().nextInt(state.productos);
+        state.bean(ProductService.class).updateStock(id, 1, "ENTRADA", "benchmark");
+    }
+}
@@ -0,0 +1,47 @@
+package com.inventory.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias y errores de una operación. La latencia se mide desde el instante
+ * en que la petición debía salir según la tasa de llegadas, no desde que salió,
+ * para no ocultar las esperas cuando el servidor se atrasa (omisión coordinada).
+ */
+public class EndpointStats {
+    
+    private static final long MAX_LATENCIA_US = TimeUnit.MINUTES.toMicros(5);
+    
+    private final Recorder recorder = new Recorder(MAX_LATENCIA_US, 3);
+    private final LongAdder errores = new LongAdder();
+    private final LongAdder descartadas = new LongAdder();
+    
+    public void record(long programadoNanos, HttpResponse<?> response, Throwable error) {
+        if (error != null || response.statusCode() >= 400) {
+            errores.increment();
+            return;
+        }
+        long latencia = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - programadoNanos);
+        recorder.recordValue(Math.min(Math.max(latencia, 1), MAX_LATENCIA_US));
+    }
+    
+    // Peticiones que no llegaron a enviarse por superar el máximo en vuelo
+    public void descartada() {
+        descartadas.increment();
+    }
+    
+    public long getErrores() {
+        return errores.sum();
+    }
+    
+    public long getDescartadas() {
+        return descartadas.sum();
+    }
+    
+    public Histogram snapshot() {
+        return recorder.getIntervalHistogram();
+    }
+}
@@ -0,0 +1,128 @@
+package com.inventory.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.inventory.service.DatasetSeeder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import java.io.File;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exportación completa del historial de movimientos con poco heap. Se lanza
+ * con un -Xmx pequeño (ver el perfil benchmark del pom) sobre una H2 en disco
+ * con millones de movimientos: si la exportación acumulara filas en memoria
+ * terminaría en OutOfMemoryError. Sale con código 1 si el fichero exportado no
+ * tiene una línea por movimiento.
+ */
+public class ExportMemoryTest {
+    
+    private final long movimientos = Long.getLong("export.movimientos", 3_000_000L);
+    private final int categorias = Integer.getInteger("loadtest.categorias", 50);
+    private final int productos = Integer.getInteger("loadtest.productos", 20000);
+    private final File datos = new File(System.getProperty("export.data", "target/export-test"));
+    private final File salida = new File(System.getProperty("loadtest.output", "target/loadtest"));
+    private final String perfiles = System.getProperty("loadtest.profiles", "");
+    
+    public record Resultado(long movimientos, long filas, long megabytes, double segundos, double filasPorSegundo,
+                            long heapMaximoMb, long heapVivoMb) {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int codigo;
+        try {
+            Resultado resultado = new ExportMemoryTest().run();
+            codigo = resultado.filas() == resultado.movimientos() ? 0 : 1;
+        } catch (Throwable e) {
+            e.printStackTrace();
+            codigo = 2;
+        }
+        System.exit(codigo);
+    }
+    
+    private Resultado run() throws Exception {
+        // DatasetSeeder necesita las tablas vacías: cada ejecución empieza de cero
+        FileSystemUtils.deleteRecursively(datos);
+        String url = "jdbc:h2:file:" + new File(datos, "inventory").getAbsolutePath()
+            + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CACHE_SIZE=8192";
+        DatasetSeeder.Spec spec = new DatasetSeeder.Spec(categorias, productos, movimientos, 365, 1.0, 42);
+        ConfigurableApplicationContext context = LoadTestApplication.start(perfiles, spec,
+            "--spring.datasource.url=" + url);
+        try {
+            URI uri = URI.create("http://localhost:" + LoadTestApplication.httpPort(context)
+                + "/api/stock-movements/export?formato=csv");
+            Resultado resultado = measure(uri);
+            
+            System.out.printf("%n%d movimientos exportados en %.1f s (%.0f filas/s, %d MB)%n",
+                resultado.filas(), resultado.segundos(), resultado.filasPorSegundo(), resultado.megabytes());
+            System.out.printf("heap máximo %d MB, máximo ocupado tras GC durante la exportación %d MB%n",
+                resultado.heapMaximoMb(), resultado.heapVivoMb());
+            
+            salida.mkdirs();
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(new File(salida, "export-memory.json"), resultado);
+            return resultado;
+        } finally {
+            context.close();
+            FileSystemUtils.deleteRecursively(datos);
+        }
+    }
+    
+    private Resultado measure(URI uri) throws Exception {
+        List<MemoryPoolMXBean> heap = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+        // Lo ocupado tras cada GC es lo que la exportación retiene; el pico bruto
+        // solo refleja cuánto deja crecer el recolector antes de actuar
+        AtomicLong vivo = new AtomicLong();
+        ScheduledExecutorService muestreo = Executors.newSingleThreadScheduledExecutor();
+        muestreo.scheduleAtFixedRate(() -> vivo.accumulateAndGet(heap.stream()
+            .map(MemoryPoolMXBean::getCollectionUsage)
+            .filter(Objects::nonNull)
+            .mapToLong(MemoryUsage::getUsed)
+            .sum(), Math::max), 0, 100, TimeUnit.MILLISECONDS);
+        
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long inicio = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(HttpRequest.newBuilder(uri).GET().build(),
+            HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("La exportación respondió " + response.statusCode());
+        }
+        
+        long lineas = 0;
+        long bytes = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream body = response.body()) {
+            int leidos;
+            while ((leidos = body.read(buffer)) != -1) {
+                bytes += leidos;
+                for (int i = 0; i < leidos; i++) {
+                    if (buffer[i] == '\n') {
+                        lineas++;
+                    }
+                }
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / (double) TimeUnit.SECONDS.toNanos(1);
+        muestreo.shutdownNow();
+        // La primera línea es la cabecera del CSV
+        long filas = lineas - 1;
+        return new Resultado(movimientos, filas, bytes >> 20, segundos, filas / segundos,
+            Runtime.getRuntime().maxMemory() >> 20, vivo.get() >> 20);
+    }
+}
@@ -0,0 +1,220 @@
+package com.inventory.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.inventory.service.DatasetSeeder;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de carga de extremo a extremo: arranca la aplicación con servidor HTTP
+ * sobre H2, genera los datos y lanza peticiones a una tasa fija (modelo
+ * abierto: las llegadas no esperan a las respuestas). Al terminar compara cada
+ * operación con la línea base guardada y sale con código 1 si el throughput
+ * baja o el p99 sube más de lo tolerado.
+ *
+ * Configuración por propiedades del sistema {@code loadtest.*}; ver el perfil
+ * benchmark del pom.
+ */
+public class LoadTest {
+    
+    private final int rate = Integer.getInteger("loadtest.rate", 500);
+    private final int duracion = Integer.getInteger("loadtest.duration", 60);
+    private final int calentamiento = Integer.getInteger("loadtest.warmup", 15);
+    private final int maxEnVuelo = Integer.getInteger("loadtest.max-in-flight", 2000);
+    private final int categorias = Integer.getInteger("loadtest.categorias", 50);
+    private final int productos = Integer.getInteger("loadtest.productos", 20000);
+    private final long movimientos = Long.getLong("loadtest.movimientos", 200_000L);
+    private final double toleranciaThroughput = Double.parseDouble(System.getProperty("loadtest.tolerance", "0.10"));
+    private final double toleranciaLatencia = Double.parseDouble(System.getProperty("loadtest.latency-tolerance", "0.25"));
+    private final File baseline = new File(System.getProperty("loadtest.baseline", "loadtest-baseline.json"));
+    private final File salida = new File(System.getProperty("loadtest.output", "target/loadtest"));
+    private final boolean actualizarBaseline = Boolean.getBoolean("loadtest.update-baseline");
+    // Perfiles de Spring adicionales, p. ej. virtual-threads
+    private final String perfiles = System.getProperty("loadtest.profiles", "");
+    
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    
+    public record Resultado(long peticiones, long errores, long descartadas, double throughput,
+                            double p50Ms, double p90Ms, double p99Ms, double p999Ms, double maxMs) {
+    }
+    
+    public record Informe(int rate, int duracion, Map<String, Resultado> operaciones) {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int codigo;
+        try {
+            codigo = new LoadTest().run();
+        } catch (Exception e) {
+            e.printStackTrace();
+            codigo = 2;
+        }
+        System.exit(codigo);
+    }
+    
+    private int run() throws Exception {
+        DatasetSeeder.Spec spec = new DatasetSeeder.Spec(categorias, productos, movimientos, 365, 1.0, 42);
+        ConfigurableApplicationContext context = LoadTestApplication.start(perfiles, spec);
+        try {
+            int port = LoadTestApplication.httpPort(context);
+            Informe informe = drive(new Workload("http://localhost:" + port, productos, categorias));
+            return report(informe);
+        } finally {
+            context.close();
+        }
+    }
+    
+    private Informe drive(Workload workload) throws InterruptedException {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        workload.getOperaciones().forEach(operacion -> stats.put(operacion.nombre(), new EndpointStats()));
+        
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(executor)
+            .build();
+        
+        Random random = new Random(42);
+        AtomicInteger enVuelo = new AtomicInteger();
+        long intervalo = TimeUnit.SECONDS.toNanos(1) / rate;
+        long inicio = System.nanoTime();
+        long medicion = inicio + TimeUnit.SECONDS.toNanos(calentamiento);
+        long fin = medicion + TimeUnit.SECONDS.toNanos(duracion);
+        
+        // Cada petición tiene su instante programado; si el generador se retrasa
+        // envía las pendientes de golpe en lugar de reducir la tasa
+        for (long i = 0; ; i++) {
+            long programado = inicio + i * intervalo;
+            if (programado - fin >= 0) {
+                break;
+            }
+            long espera = programado - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            
+            Workload.Operacion operacion = workload.next(random);
+            EndpointStats estadisticas = stats.get(operacion.nombre());
+            boolean medida = programado - medicion >= 0;
+            if (enVuelo.get() >= maxEnVuelo) {
+                if (medida) {
+                    estadisticas.descartada();
+                }
+                continue;
+            }
+            enVuelo.incrementAndGet();
+            client.sendAsync(operacion.peticion().apply(random), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    enVuelo.decrementAndGet();
+                    if (medida) {
+                        estadisticas.record(programado, response, error);
+                    }
+                });
+        }
+        
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (enVuelo.get() > 0 && System.nanoTime() < limite) {
+            Thread.sleep(50);
+        }
+        executor.shutdownNow();
+        
+        Map<String, Resultado> resultados = new LinkedHashMap<>();
+        salida.mkdirs();
+        stats.forEach((nombre, estadisticas) -> {
+            Histogram histograma = estadisticas.snapshot();
+            writeDistribution(nombre, histograma);
+            resultados.put(nombre, new Resultado(
+                histograma.getTotalCount(),
+                estadisticas.getErrores(),
+                estadisticas.getDescartadas(),
+                (double) histograma.getTotalCount() / duracion,
+                millis(histograma.getValueAtPercentile(50)),
+                millis(histograma.getValueAtPercentile(90)),
+                millis(histograma.getValueAtPercentile(99)),
+                millis(histograma.getValueAtPercentile(99.9)),
+                millis(histograma.getMaxValue())));
+        });
+        return new Informe(rate, duracion, resultados);
+    }
+    
+    private int report(Informe informe) throws IOException {
+        System.out.printf("%nPerfiles: benchmark%s, %d req/s durante %d s%n",
+            perfiles.isBlank() ? "" : "," + perfiles, informe.rate(), informe.duracion());
+        System.out.printf("%-15s %10s %8s %10s %10s %10s %10s %10s%n",
+            "operación", "req/s", "errores", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        informe.operaciones().forEach((nombre, r) -> System.out.printf(
+            "%-15s %10.1f %8d %10.2f %10.2f %10.2f %10.2f %10.2f%n", nombre, r.throughput(),
+            r.errores() + r.descartadas(), r.p50Ms(), r.p90Ms(), r.p99Ms(), r.p999Ms(), r.maxMs()));
+        objectMapper.writeValue(new File(salida, "result.json"), informe);
+        
+        if (actualizarBaseline || !baseline.exists()) {
+            objectMapper.writeValue(baseline, informe);
+            System.out.println("Línea base guardada en " + baseline);
+            return 0;
+        }
+        
+        Informe anterior = objectMapper.readValue(baseline, Informe.class);
+        if (anterior.rate() != informe.rate()) {
+            System.out.printf("La línea base se midió a %d req/s y esta ejecución a %d: no se compara%n",
+                anterior.rate(), informe.rate());
+            return 0;
+        }
+        
+        List<String> regresiones = new ArrayList<>();
+        informe.operaciones().forEach((nombre, actual) -> {
+            Resultado base = anterior.operaciones().get(nombre);
+            if (base == null) {
+                return;
+            }
+            if (actual.throughput() < base.throughput() * (1 - toleranciaThroughput)) {
+                regresiones.add(String.format("%s: throughput %.1f req/s, línea base %.1f",
+                    nombre, actual.throughput(), base.throughput()));
+            }
+            if (actual.p99Ms() > base.p99Ms() * (1 + toleranciaLatencia)) {
+                regresiones.add(String.format("%s: p99 %.2f ms, línea base %.2f ms",
+                    nombre, actual.p99Ms(), base.p99Ms()));
+            }
+            if (actual.errores() > 0) {
+                regresiones.add(String.format("%s: %d peticiones con error", nombre, actual.errores()));
+            }
+        });
+        
+        if (regresiones.isEmpty()) {
+            System.out.println("Sin regresiones respecto a la línea base");
+            return 0;
+        }
+        System.out.println("Regresiones respecto a la línea base:");
+        regresiones.forEach(regresion -> System.out.println("  " + regresion));
+        return 1;
+    }
+    
+    private void writeDistribution(String nombre, Histogram histograma) {
+        try (PrintStream out = new PrintStream(new File(salida, nombre + ".hgrm"))) {
+            histograma.outputPercentileDistribution(out, 1000.0);
+        } catch (IOException e) {
+            throw new RuntimeException("No se pudo escribir la distribución de " + nombre, e);
+        }
+    }
+    
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
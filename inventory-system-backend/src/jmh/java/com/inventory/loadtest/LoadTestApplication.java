@@ -0,0 +1,52 @@
+package com.inventory.loadtest;
+
+import com.inventory.InventorySystemApplication;
+import com.inventory.config.ReactiveApiServer;
+import com.inventory.service.DatasetSeeder;
+import com.inventory.service.ProductSearchIndex;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Arranque común de las pruebas de carga: aplicación con servidor HTTP en un
+ * puerto libre sobre la H2 del perfil benchmark, con datos generados antes de
+ * que se construyan los índices en memoria.
+ */
+final class LoadTestApplication {
+    
+    private LoadTestApplication() {
+    }
+    
+    static ConfigurableApplicationContext start(String perfiles, DatasetSeeder.Spec spec, String... args)
+            throws InterruptedException {
+        ApplicationListener<ApplicationStartedEvent> seeder = event ->
+            event.getApplicationContext().getBean(DatasetSeeder.class).seed(spec);
+        
+        List<String> argumentos = new ArrayList<>(List.of("--spring.main.web-application-type=servlet", "--server.port=0"));
+        argumentos.addAll(Arrays.asList(args));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(InventorySystemApplication.class)
+            .profiles(("benchmark," + perfiles).split(","))
+            .listeners(seeder)
+            .run(argumentos.toArray(String[]::new));
+        
+        ProductSearchIndex index = context.getBean(ProductSearchIndex.class);
+        while (!index.isReady()) {
+            Thread.sleep(50);
+        }
+        return context;
+    }
+    
+    static int httpPort(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+    
+    static int reactivePort(ConfigurableApplicationContext context) {
+        return context.getBean(ReactiveApiServer.class).getPort();
+    }
+}
@@ -0,0 +1,188 @@
+package com.inventory.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.inventory.service.DatasetSeeder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cuántos clientes lentos aguanta cada pila a la vez. Abre N conexiones que
+ * descargan el historial completo de movimientos leyendo un bloque cada cierto
+ * tiempo, primero contra la exportación MVC y después contra el stream de la
+ * API reactiva, y cuenta cuántas reciben datos de forma sostenida. La
+ * aplicación corre en la misma JVM, así que también se mide el pico de hilos.
+ */
+public class SlowClientTest {
+    
+    private final int clientes = Integer.getInteger("slowclients.clients", 1000);
+    private final int duracion = Integer.getInteger("slowclients.duration", 30);
+    private final long pausaMs = Long.getLong("slowclients.pause-ms", 500L);
+    private final int categorias = Integer.getInteger("loadtest.categorias", 50);
+    private final int productos = Integer.getInteger("loadtest.productos", 20000);
+    private final long movimientos = Long.getLong("loadtest.movimientos", 200_000L);
+    private final File salida = new File(System.getProperty("loadtest.output", "target/loadtest"));
+    // Con virtual-threads la exportación MVC corre en hilos virtuales
+    private final String perfiles = System.getProperty("loadtest.profiles", "");
+    
+    private final ScheduledExecutorService lector = Executors.newScheduledThreadPool(2);
+    
+    public record Resultado(int clientes, int conectados, int sostenidos, int errores, long megabytes, int picoHilos) {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int codigo = 0;
+        try {
+            new SlowClientTest().run();
+        } catch (Exception e) {
+            e.printStackTrace();
+            codigo = 2;
+        }
+        System.exit(codigo);
+    }
+    
+    private void run() throws Exception {
+        DatasetSeeder.Spec spec = new DatasetSeeder.Spec(categorias, productos, movimientos, 365, 1.0, 42);
+        // La API reactiva se compara con la MVC, así que su perfil va siempre
+        String conReactiva = perfiles.isBlank() ? "reactive" : perfiles + ",reactive";
+        ConfigurableApplicationContext context = LoadTestApplication.start(conReactiva, spec,
+            "--inventory.reactive.port=0");
+        try {
+            String mvc = "http://localhost:" + LoadTestApplication.httpPort(context);
+            String reactiva = "http://localhost:" + LoadTestApplication.reactivePort(context);
+            
+            Map<String, Resultado> resultados = new LinkedHashMap<>();
+            resultados.put("mvc", measure(URI.create(mvc + "/api/stock-movements/export?formato=ndjson")));
+            resultados.put("reactiva", measure(URI.create(reactiva + "/api/stock-movements")));
+            
+            System.out.printf("%n%d clientes, un bloque cada %d ms durante %d s%n", clientes, pausaMs, duracion);
+            System.out.printf("%-10s %11s %11s %8s %8s %11s%n",
+                "pila", "conectados", "sostenidos", "errores", "MB", "pico hilos");
+            resultados.forEach((pila, r) -> System.out.printf("%-10s %11d %11d %8d %8d %11d%n",
+                pila, r.conectados(), r.sostenidos(), r.errores(), r.megabytes(), r.picoHilos()));
+            
+            salida.mkdirs();
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(new File(salida, "slow-clients.json"), resultados);
+        } finally {
+            lector.shutdownNow();
+            context.close();
+        }
+    }
+    
+    private Resultado measure(URI uri) throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        
+        List<SlowReader> lectores = new ArrayList<>(clientes);
+        for (int i = 0; i < clientes; i++) {
+            SlowReader reader = new SlowReader();
+            lectores.add(reader);
+            client.sendAsync(request, info -> {
+                reader.conectado = true;
+                return reader;
+            }).whenComplete((response, error) -> {
+                if (error != null) {
+                    reader.error = true;
+                }
+            });
+        }
+        
+        long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(duracion);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(duracion));
+        
+        // Sostenido: recibió datos en los últimos segundos de la ventana
+        long umbral = fin - TimeUnit.MILLISECONDS.toNanos(Math.max(5000, pausaMs * 4));
+        int conectados = 0;
+        int sostenidos = 0;
+        int errores = 0;
+        long bytes = 0;
+        for (SlowReader reader : lectores) {
+            conectados += reader.conectado ? 1 : 0;
+            sostenidos += reader.bytes > 0 && reader.ultimoDato - umbral > 0 ? 1 : 0;
+            errores += reader.error ? 1 : 0;
+            bytes += reader.bytes;
+            reader.cancel();
+        }
+        Thread.sleep(2000);
+        return new Resultado(clientes, conectados, sostenidos, errores, bytes >> 20, threads.getPeakThreadCount());
+    }
+    
+    /**
+     * Pide un bloque del cuerpo y no pide el siguiente hasta pasada la pausa;
+     * el cliente HTTP deja de leer el socket mientras no hay demanda.
+     */
+    private final class SlowReader implements HttpResponse.BodySubscriber<Void> {
+        private final CompletableFuture<Void> body = new CompletableFuture<>();
+        private volatile Flow.Subscription subscription;
+        private volatile boolean conectado;
+        private volatile boolean error;
+        private volatile long ultimoDato;
+        private volatile long bytes;
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+        
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            long leidos = 0;
+            for (ByteBuffer buffer : buffers) {
+                leidos += buffer.remaining();
+            }
+            bytes += leidos;
+            ultimoDato = System.nanoTime();
+            lector.schedule(() -> subscription.request(1), pausaMs, TimeUnit.MILLISECONDS);
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            error = true;
+            body.completeExceptionally(throwable);
+        }
+        
+        @Override
+        public void onComplete() {
+            ultimoDato = System.nanoTime();
+            body.complete(null);
+        }
+        
+        @Override
+        public CompletionStage<Void> getBody() {
+            return body;
+        }
+        
+        private void cancel() {
+            Flow.Subscription actual = subscription;
+            if (actual != null) {
+                actual.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.inventory.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.inventory.entity.Product;
+import com.inventory.repository.ProductRepository;
+import com.inventory.service.DatasetSeeder;
+import com.inventory.service.StockMovementBroadcaster;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reparto de movimientos por Server-Sent Events a muchos suscriptores. Abre N
+ * conexiones a /api/stock-movements/stream sin filtro, registra movimientos
+ * por la API a una tasa fija y mide cuántos eventos llegan a cada suscriptor y
+ * cuánto tardan desde que se envió la escritura. Sale con código 1 si algún
+ * suscriptor no llegó a conectarse o perdió eventos.
+ */
+public class SseFanoutTest {
+    
+    private static final String EVENTO = "event:stock-movement";
+    // El número de secuencia viaja en el motivo del movimiento
+    private static final String MARCA = "\"motivo\":\"sse-";
+    private static final long MAX_LATENCIA_US = TimeUnit.MINUTES.toMicros(5);
+    
+    private final int clientes = Integer.getInteger("sse.subscribers", 5000);
+    private final int rate = Integer.getInteger("sse.rate", 20);
+    private final int duracion = Integer.getInteger("sse.duration", 15);
+    private final int categorias = Integer.getInteger("loadtest.categorias", 50);
+    private final int productos = Integer.getInteger("loadtest.productos", 20000);
+    private final long movimientos = Long.getLong("loadtest.movimientos", 200_000L);
+    private final File salida = new File(System.getProperty("loadtest.output", "target/loadtest"));
+    private final String perfiles = System.getProperty("loadtest.profiles", "");
+    
+    private final Recorder latencias = new Recorder(MAX_LATENCIA_US, 3);
+    
+    public record Resultado(int clientes, int conectados, int movimientos, int erroresEscritura,
+                            long esperados, long entregados, int completos, int desconectados,
+                            double p50Ms, double p99Ms, double maxMs, int picoHilos) {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int codigo;
+        try {
+            Resultado resultado = new SseFanoutTest().run();
+            codigo = resultado.conectados() == resultado.clientes()
+                && resultado.entregados() == resultado.esperados() ? 0 : 1;
+        } catch (Exception e) {
+            e.printStackTrace();
+            codigo = 2;
+        }
+        System.exit(codigo);
+    }
+    
+    private Resultado run() throws Exception {
+        DatasetSeeder.Spec spec = new DatasetSeeder.Spec(categorias, productos, movimientos, 365, 1.0, 42);
+        ConfigurableApplicationContext context = LoadTestApplication.start(perfiles, spec,
+            "--inventory.stream.max-subscribers=" + Math.max(clientes, 10000));
+        try {
+            String base = "http://localhost:" + LoadTestApplication.httpPort(context);
+            List<Long> ids = context.getBean(ProductRepository.class).findAll(PageRequest.of(0, 100))
+                .map(Product::getId)
+                .getContent();
+            Resultado resultado = measure(base, ids, context.getBean(StockMovementBroadcaster.class));
+            
+            System.out.printf("%n%d suscriptores, %d movimientos/s durante %d s%n", clientes, rate, duracion);
+            System.out.printf("conectados %d, movimientos %d (%d errores), eventos %d/%d, completos %d, desconectados %d%n",
+                resultado.conectados(), resultado.movimientos(), resultado.erroresEscritura(),
+                resultado.entregados(), resultado.esperados(), resultado.completos(), resultado.desconectados());
+            System.out.printf("latencia p50 %.1f ms, p99 %.1f ms, máx %.1f ms, pico de hilos %d%n",
+                resultado.p50Ms(), resultado.p99Ms(), resultado.maxMs(), resultado.picoHilos());
+            
+            salida.mkdirs();
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(new File(salida, "sse-fanout.json"), resultado);
+            return resultado;
+        } finally {
+            context.close();
+        }
+    }
+    
+    private Resultado measure(String base, List<Long> ids, StockMovementBroadcaster broadcaster)
+            throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        
+        int total = rate * duracion;
+        AtomicLongArray envios = new AtomicLongArray(total);
+        
+        // Un solo selector y dos hilos atienden las N conexiones del lado cliente
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .executor(executor)
+            .build();
+        HttpRequest stream = HttpRequest.newBuilder(URI.create(base + "/api/stock-movements/stream"))
+            .header("Accept", "text/event-stream")
+            .GET()
+            .build();
+        
+        List<Suscriptor> suscriptores = new ArrayList<>(clientes);
+        for (int i = 0; i < clientes; i++) {
+            Suscriptor suscriptor = new Suscriptor(envios);
+            suscriptores.add(suscriptor);
+            client.sendAsync(stream, info -> HttpResponse.BodySubscribers.fromLineSubscriber(suscriptor))
+                .whenComplete((response, error) -> suscriptor.terminado = true);
+        }
+        
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (broadcaster.getSubscriberCount() < clientes && System.nanoTime() < limite) {
+            Thread.sleep(100);
+        }
+        int conectados = broadcaster.getSubscriberCount();
+        
+        // Escrituras secuenciales a tasa fija; cada una lleva su número de secuencia
+        int errores = 0;
+        long intervalo = TimeUnit.SECONDS.toNanos(1) / rate;
+        long inicio = System.nanoTime();
+        for (int k = 0; k < total; k++) {
+            long espera = inicio + k * intervalo - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            HttpRequest escritura = HttpRequest.newBuilder(URI.create(base + "/api/products/" + ids.get(k % ids.size()) + "/stock"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                    "{\"cantidad\":1,\"tipo\":\"ENTRADA\",\"motivo\":\"sse-" + k + "\"}"))
+                .build();
+            envios.set(k, System.nanoTime());
+            try {
+                HttpResponse<Void> response = client.send(escritura, HttpResponse.BodyHandlers.discarding());
+                errores += response.statusCode() >= 400 ? 1 : 0;
+            } catch (Exception e) {
+                errores++;
+            }
+        }
+        
+        long esperados = (long) conectados * (total - errores);
+        limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (entregados(suscriptores) < esperados && System.nanoTime() < limite) {
+            Thread.sleep(100);
+        }
+        
+        long entregados = entregados(suscriptores);
+        int completos = 0;
+        int desconectados = 0;
+        for (Suscriptor suscriptor : suscriptores) {
+            completos += suscriptor.recibidos == total - errores ? 1 : 0;
+            desconectados += suscriptor.terminado ? 1 : 0;
+            suscriptor.cancel();
+        }
+        executor.shutdownNow();
+        
+        Histogram histograma = latencias.getIntervalHistogram();
+        return new Resultado(clientes, conectados, total, errores, esperados, entregados, completos, desconectados,
+            millis(histograma.getValueAtPercentile(50)),
+            millis(histograma.getValueAtPercentile(99)),
+            millis(histograma.getMaxValue()),
+            threads.getPeakThreadCount());
+    }
+    
+    private static long entregados(List<Suscriptor> suscriptores) {
+        long total = 0;
+        for (Suscriptor suscriptor : suscriptores) {
+            total += suscriptor.recibidos;
+        }
+        return total;
+    }
+    
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+    
+    /**
+     * Lee el stream línea a línea: tras cada línea de evento busca el número de
+     * secuencia en la de datos y registra la latencia desde su escritura.
+     */
+    private final class Suscriptor implements Flow.Subscriber<String> {
+        private final AtomicLongArray envios;
+        private volatile Flow.Subscription subscription;
+        private volatile int recibidos;
+        private volatile boolean terminado;
+        private boolean enEvento;
+        
+        private Suscriptor(AtomicLongArray envios) {
+            this.envios = envios;
+        }
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+        
+        @Override
+        public void onNext(String linea) {
+            if (linea.startsWith(EVENTO)) {
+                enEvento = true;
+                return;
+            }
+            int marca = linea.indexOf(MARCA);
+            if (!enEvento || !linea.startsWith("data:") || marca < 0) {
+                return;
+            }
+            enEvento = false;
+            int desde = marca + MARCA.length();
+            int k = Integer.parseInt(linea, desde, linea.indexOf('"', desde), 10);
+            long latencia = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - envios.get(k));
+            latencias.recordValue(Math.min(Math.max(latencia, 1), MAX_LATENCIA_US));
+            recibidos++;
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            terminado = true;
+        }
+        
+        @Override
+        public void onComplete() {
+            terminado = true;
+        }
+        
+        private void cancel() {
+            Flow.Subscription actual = subscription;
+            if (actual != null) {
+                actual.cancel();
+            }
+        }
+    }
+}
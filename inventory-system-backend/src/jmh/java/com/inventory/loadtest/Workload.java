@@ -0,0 +1,87 @@
+package com.inventory.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Mezcla de peticiones de lectura y escritura sobre los cuatro controladores.
+ * Cada operación tiene un peso relativo; los ids se eligen al azar dentro del
+ * conjunto de datos generado.
+ */
+public class Workload {
+    
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String[] BUSQUEDAS = {"tornillo", "acero inoxidable", "pvc", "llave de latón", "mart"};
+    
+    private final String baseUrl;
+    private final int productos;
+    private final int categorias;
+    private final List<Operacion> operaciones = new ArrayList<>();
+    private int pesoTotal;
+    
+    public record Operacion(String nombre, int peso, Function<Random, HttpRequest> peticion) {
+    }
+    
+    public Workload(String baseUrl, int productos, int categorias) {
+        this.baseUrl = baseUrl;
+        this.productos = productos;
+        this.categorias = categorias;
+        
+        add("producto", 25, random -> get("/api/products/" + producto(random)));
+        add("productos", 8, random -> get("/api/products?page=" + random.nextInt(100) + "&size=20"));
+        add("busqueda", 12, random -> get("/api/products/search?query="
+            + BUSQUEDAS[random.nextInt(BUSQUEDAS.length)].replace(" ", "+") + "&size=20"));
+        add("por-categoria", 8, random -> get("/api/products/category/" + categoria(random) + "?size=20"));
+        add("bajo-stock", 4, random -> get("/api/products/bajo-stock?size=20"));
+        add("categorias", 5, random -> get("/api/categories"));
+        add("movimientos", 10, random -> get("/api/stock-movements/product/" + producto(random) + "/cursor?size=20"));
+        add("dashboard", 8, random -> get("/api/dashboard/metrics"));
+        add("stock", 20, random -> post("/api/products/" + producto(random) + "/stock",
+            "{\"cantidad\":1,\"tipo\":\"ENTRADA\",\"motivo\":\"Prueba de carga\"}"));
+    }
+    
+    public List<Operacion> getOperaciones() {
+        return operaciones;
+    }
+    
+    public Operacion next(Random random) {
+        int tirada = random.nextInt(pesoTotal);
+        for (Operacion operacion : operaciones) {
+            tirada -= operacion.peso();
+            if (tirada < 0) {
+                return operacion;
+            }
+        }
+        return operaciones.get(operaciones.size() - 1);
+    }
+    
+    private void add(String nombre, int peso, Function<Random, HttpRequest> peticion) {
+        operaciones.add(new Operacion(nombre, peso, peticion));
+        pesoTotal += peso;
+    }
+    
+    private int producto(Random random) {
+        return 1 + random.nextInt(productos);
+    }
+    
+    private int categoria(Random random) {
+        return 1 + random.nextInt(categorias);
+    }
+    
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT).GET().build();
+    }
+    
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(TIMEOUT)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+}
@@ -0,0 +1,12 @@
+package com.inventory.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    public static final String PRODUCTS = "products";
+    public static final String CATEGORIES = "categories";
+}
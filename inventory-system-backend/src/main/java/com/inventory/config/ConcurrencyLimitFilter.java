@@ -0,0 +1,90 @@
+package com.inventory.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita las peticiones a la API atendidas a la vez. Con hilos virtuales
+ * Tomcat ya no tiene un pool que frene la concurrencia y miles de peticiones
+ * acabarían esperando una conexión de Hikari; aquí esperan un permiso y, si
+ * no llega a tiempo, reciben 503 en lugar de agotar el timeout del pool.
+ *
+ * Las respuestas asíncronas (SSE, exportaciones) liberan el permiso al salir
+ * del hilo de la petición, no al terminar de escribir.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.concurrency.max-requests")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    
+    private final Semaphore permisos;
+    private final long acquireTimeoutMs;
+    private final ObjectMapper objectMapper;
+    
+    public ConcurrencyLimitFilter(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.concurrency.max-requests}") int maxRequests,
+            @Value("${inventory.concurrency.acquire-timeout-ms:500}") long acquireTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.permisos = new Semaphore(maxRequests, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        Gauge.builder("inventory.http.concurrency.available", permisos, Semaphore::availablePermits)
+            .description("Permisos libres del límite de peticiones concurrentes")
+            .register(meterRegistry);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean adquirido;
+        try {
+            adquirido = permisos.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            adquirido = false;
+        }
+        
+        if (!adquirido) {
+            reject(response);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permisos.release();
+        }
+    }
+    
+    private void reject(HttpServletResponse response) throws IOException {
+        ErrorResponse error = new ErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            "Servidor saturado, reintente en unos segundos",
+            LocalDateTime.now()
+        );
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
@@ -0,0 +1,64 @@
+package com.inventory.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+/**
+ * DataSource y gestor de transacciones JPA declarados explícitamente. Con
+ * R2DBC en el classpath Spring Boot deja de crear el DataSource (hay una
+ * ConnectionFactory) y el gestor de JPA (ya existe un gestor reactivo), y
+ * los @Transactional de los servicios no sabrían qué gestor usar.
+ */
+@Configuration
+public class PersistenceConfig {
+    
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+    
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    /**
+     * Conexiones de las exportaciones. En MySQL llevan useCursorFetch para que
+     * el servidor entregue el resultado por bloques del fetch size en lugar de
+     * enviarlo entero; va en un pool aparte porque esa opción convierte todas
+     * las sentencias preparadas de la conexión en sentencias del servidor.
+     */
+    @Bean
+    public HikariDataSource exportDataSource(
+            DataSourceProperties dataSourceProperties,
+            @Value("${inventory.export.max-connections:4}") int maxConnections) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+        dataSource.setPoolName("export");
+        dataSource.setMaximumPoolSize(maxConnections);
+        dataSource.setMinimumIdle(0);
+        dataSource.setReadOnly(true);
+        if (dataSource.getJdbcUrl().startsWith("jdbc:mysql:")) {
+            dataSource.addDataSourceProperty("useCursorFetch", "true");
+        }
+        return dataSource;
+    }
+    
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+}
@@ -0,0 +1,117 @@
+package com.inventory.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.controller.ReactiveProductHandler;
+import com.inventory.controller.ReactiveStockMovementHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import java.time.LocalDateTime;
+
+/**
+ * API reactiva de solo lectura en su propio puerto, junto a la API MVC. Corre
+ * sobre Reactor Netty con rutas funcionales, sin registrar WebFlux en el
+ * contexto: así no choca con la configuración de Spring MVC. Usa el mismo
+ * ObjectMapper que MVC para que el JSON sea idéntico.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.reactive.enabled", havingValue = "true")
+public class ReactiveApiServer implements SmartLifecycle {
+    
+    private final ObjectMapper objectMapper;
+    private final HttpHandler httpHandler;
+    private final int port;
+    private volatile DisposableServer server;
+    
+    public ReactiveApiServer(
+            ObjectMapper objectMapper,
+            ReactiveProductHandler productHandler,
+            ReactiveStockMovementHandler stockMovementHandler,
+            @Value("${inventory.reactive.port:8081}") int port) {
+        this.objectMapper = objectMapper;
+        this.port = port;
+        
+        HandlerStrategies strategies = HandlerStrategies.builder()
+            .codecs(codecs -> {
+                codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+            })
+            .build();
+        RouterFunction<ServerResponse> routes = productHandler.routes().and(stockMovementHandler.routes());
+        this.httpHandler = WebHttpHandlerBuilder.webHandler(RouterFunctions.toWebHandler(routes, strategies))
+            .exceptionHandler(this::handleError)
+            .build();
+    }
+    
+    @Override
+    public void start() {
+        server = HttpServer.create()
+            .port(port)
+            .handle(new ReactorHttpHandlerAdapter(httpHandler))
+            .bindNow();
+        log.info("API reactiva escuchando en el puerto {}", server.port());
+    }
+    
+    @Override
+    public void stop() {
+        DisposableServer actual = server;
+        if (actual != null) {
+            actual.disposeNow();
+            server = null;
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+    
+    public int getPort() {
+        DisposableServer actual = server;
+        return actual != null ? actual.port() : -1;
+    }
+    
+    // Mismo criterio que GlobalExceptionHandler: RuntimeException es un error del cliente
+    private Mono<Void> handleError(ServerWebExchange exchange, Throwable ex) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (ex instanceof ResponseStatusException || response.isCommitted()) {
+            return Mono.error(ex);
+        }
+        
+        HttpStatus status = ex instanceof RuntimeException ? HttpStatus.BAD_REQUEST : HttpStatus.INTERNAL_SERVER_ERROR;
+        String mensaje = status == HttpStatus.BAD_REQUEST
+            ? ex.getMessage()
+            : "Error interno del servidor: " + ex.getMessage();
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(new ErrorResponse(status.value(), mensaje, LocalDateTime.now()));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
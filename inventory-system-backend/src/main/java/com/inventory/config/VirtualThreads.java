@@ -0,0 +1,18 @@
+package com.inventory.config;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * Modo de hilos virtuales: spring.threads.virtual.enabled activo y una JVM que
+ * los soporte (Java 21 o superior), igual que lo interpreta Spring Boot.
+ */
+public final class VirtualThreads {
+    
+    private VirtualThreads() {
+    }
+    
+    public static boolean isActive(Environment environment) {
+        return Runtime.version().feature() >= 21
+            && environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+    }
+}
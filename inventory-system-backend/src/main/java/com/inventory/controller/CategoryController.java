@@ -1,18 +1,22 @@
 package com.inventory.controller;
 
 import com.inventory.dto.CategoryDTO;
+import com.inventory.dto.ModoTotal;
+import com.inventory.service.ResourceVersions;
 import com.inventory.service.impl.CategoryServiceImpl;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.Map;
 
 @RestController
@@ -23,6 +27,7 @@ import java.util.Map;
 public class CategoryController {
     
     private final CategoryServiceImpl categoryService;
+    private final ResourceVersions resourceVersions;
     
     @PostMapping
     @Operation(summary = "Crear una nueva categoría")
@@ -49,20 +54,32 @@ public class CategoryController {
     
     @GetMapping("/{id}")
     @Operation(summary = "Obtener una categoría por ID")
-    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Long id, WebRequest request) {
+        String etag = resourceVersions.etag(ResourceVersions.Recurso.CATEGORIAS, id, request);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        
         CategoryDTO category = categoryService.getCategoryById(id);
-        return ResponseEntity.ok(category);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(category);
     }
     
     @GetMapping
     @Operation(summary = "Obtener todas las categorías")
-    public ResponseEntity<Page<CategoryDTO>> getAllCategories(
+    public ResponseEntity<Slice<CategoryDTO>> getAllCategories(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "nombre") String sortBy) {
+            @RequestParam(defaultValue = "nombre") String sortBy,
+            @RequestParam(defaultValue = "exacto") String total,
+            WebRequest request) {
+        
+        String etag = resourceVersions.etag(ResourceVersions.Recurso.CATEGORIAS, request);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy).ascending());
-        Page<CategoryDTO> categories = categoryService.getAllCategories(pageable);
-        return ResponseEntity.ok(categories);
+        Slice<CategoryDTO> categories = categoryService.getAllCategories(pageable, ModoTotal.parse(total));
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(categories);
     }
 }
\ No newline at end of file
@@ -1,12 +1,15 @@
 package com.inventory.controller;
 
 import com.inventory.dto.DashboardDTO;
+import com.inventory.service.ResourceVersions;
 import com.inventory.service.impl.DashboardServiceImpl;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -16,11 +19,17 @@ import org.springframework.web.bind.annotation.*;
 public class DashboardController {
     
     private final DashboardServiceImpl dashboardService;
+    private final ResourceVersions resourceVersions;
     
     @GetMapping("/metrics")
     @Operation(summary = "Obtener métricas del dashboard")
-    public ResponseEntity<DashboardDTO> getDashboardMetrics() {
+    public ResponseEntity<DashboardDTO> getDashboardMetrics(WebRequest request) {
+        String etag = resourceVersions.etag(ResourceVersions.Recurso.DASHBOARD, request);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        
         DashboardDTO metrics = dashboardService.getDashboardMetrics();
-        return ResponseEntity.ok(metrics);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(metrics);
     }
 }
\ No newline at end of file
@@ -1,18 +1,35 @@
 package com.inventory.controller;
 
+import com.inventory.dto.FormatoArchivo;
+import com.inventory.dto.ImportResultDTO;
+import com.inventory.dto.ModoTotal;
 import com.inventory.dto.ProductDTO;
+import com.inventory.dto.StockBatchResultDTO;
+import com.inventory.dto.StockMovementRequestDTO;
+import com.inventory.service.ResourceVersions;
 import com.inventory.service.ProductService;
+import com.inventory.service.StockMovementJournal;
+import com.inventory.service.StockUpdateDispatcher;
+import com.inventory.service.impl.ExportServiceImpl;
+import com.inventory.service.impl.ProductImportServiceImpl;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +41,11 @@ import java.util.Map;
 public class ProductController {
     
     private final ProductService productService;
+    private final StockUpdateDispatcher stockUpdateDispatcher;
+    private final StockMovementJournal stockMovementJournal;
+    private final ExportServiceImpl exportService;
+    private final ProductImportServiceImpl productImportService;
+    private final ResourceVersions resourceVersions;
     
     @PostMapping
     @Operation(summary = "Crear un nuevo producto")
@@ -48,59 +70,125 @@ public class ProductController {
         return ResponseEntity.ok(Map.of("message", "Producto eliminado exitosamente"));
     }
     
+    @PostMapping("/import")
+    @Operation(summary = "Importar productos desde CSV o NDJSON")
+    public ResponseEntity<ImportResultDTO> importProducts(
+            @RequestParam(defaultValue = "csv") String formato,
+            HttpServletRequest request) throws IOException {
+        
+        ImportResultDTO result = productImportService.importProducts(
+            request.getInputStream(), FormatoArchivo.parse(formato));
+        return ResponseEntity.ok(result);
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Exportar productos en CSV o NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "csv") String formato) {
+        FormatoArchivo formatoExport = FormatoArchivo.parse(formato);
+        StreamingResponseBody body = out -> exportService.exportProducts(out, formatoExport);
+        return ResponseEntity.ok()
+            .contentType(formatoExport.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=productos." + formatoExport.getExtension())
+            .body(body);
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Obtener un producto por ID")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id, WebRequest request) {
+        String etag = resourceVersions.etag(ResourceVersions.Recurso.PRODUCTOS, id, request);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        
         ProductDTO product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(product);
     }
     
     @GetMapping
     @Operation(summary = "Obtener todos los productos con paginación")
-    public ResponseEntity<Page<ProductDTO>> getAllProducts(
+    public ResponseEntity<Slice<ProductDTO>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "DESC") String sortDir) {
+            @RequestParam(defaultValue = "DESC") String sortDir,
+            @RequestParam(defaultValue = "exacto") String total,
+            WebRequest request) {
+        
+        String etag = resourceVersions.etag(ResourceVersions.Recurso.PRODUCTOS, request);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         
         Sort sort = sortDir.equalsIgnoreCase("ASC") 
             ? Sort.by(sortBy).ascending() 
             : Sort.by(sortBy).descending();
         
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<ProductDTO> products = productService.getAllProducts(pageable);
-        return ResponseEntity.ok(products);
+        Slice<ProductDTO> products = productService.getAllProducts(pageable, ModoTotal.parse(total));
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(products);
     }
     
     @GetMapping("/search")
     @Operation(summary = "Buscar productos por nombre o descripción")
-    public ResponseEntity<Page<ProductDTO>> searchProducts(
+    public ResponseEntity<Slice<ProductDTO>> searchProducts(
             @RequestParam String query,
+            @RequestParam(required = false) Long categoriaId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "exacto") String total,
+            WebRequest request) {
+        
+        String etag = resourceVersions.etag(ResourceVersions.Recurso.PRODUCTOS, request);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("nombre").ascending());
-        Page<ProductDTO> products = productService.searchProducts(query, pageable);
-        return ResponseEntity.ok(products);
+        Slice<ProductDTO> products =
+            productService.searchProducts(query, categoriaId, pageable, ModoTotal.parse(total));
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(products);
     }
     
     @GetMapping("/category/{categoriaId}")
     @Operation(summary = "Obtener productos por categoría")
-    public ResponseEntity<Page<ProductDTO>> getProductsByCategory(
+    public ResponseEntity<Slice<ProductDTO>> getProductsByCategory(
             @PathVariable Long categoriaId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "exacto") String total,
+            WebRequest request) {
+        
+        String etag = resourceVersions.etag(ResourceVersions.Recurso.PRODUCTOS, request);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductDTO> products = productService.getProductsByCategory(categoriaId, pageable);
-        return ResponseEntity.ok(products);
+        Slice<ProductDTO> products =
+            productService.getProductsByCategory(categoriaId, pageable, ModoTotal.parse(total));
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(products);
     }
     
     @GetMapping("/bajo-stock")
     @Operation(summary = "Obtener productos con bajo stock")
-    public ResponseEntity<List<ProductDTO>> getProductsBajoStock() {
-        List<ProductDTO> products = productService.getProductsBajoStock();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductDTO>> getProductsBajoStock(
+            @RequestParam(required = false) Long categoriaId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        
+        String etag = resourceVersions.etag(ResourceVersions.Recurso.PRODUCTOS, request);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        
+        // Sin size se devuelve la lista completa, como hasta ahora
+        Pageable pageable = size != null ? PageRequest.of(page, size) : Pageable.unpaged();
+        Page<ProductDTO> products = productService.getProductsBajoStock(categoriaId, pageable);
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noCache())
+            .header("X-Total-Count", String.valueOf(products.getTotalElements()))
+            .body(products.getContent());
     }
     
     @PostMapping("/{id}/stock")
@@ -113,7 +201,20 @@ public class ProductController {
         String tipo = (String) request.get("tipo");
         String motivo = (String) request.get("motivo");
         
-        productService.updateStock(id, cantidad, tipo, motivo);
+        if (stockMovementJournal.isEnabled()) {
+            stockMovementJournal.updateStock(id, cantidad, tipo, motivo);
+        } else {
+            stockUpdateDispatcher.updateStock(id, cantidad, tipo, motivo);
+        }
         return ResponseEntity.ok(Map.of("message", "Stock actualizado exitosamente"));
     }
+    
+    @PostMapping("/stock/batch")
+    @Operation(summary = "Aplicar un lote de movimientos de stock")
+    public ResponseEntity<List<StockBatchResultDTO>> updateStockBatch(
+            @RequestBody List<StockMovementRequestDTO> requests) {
+        
+        List<StockBatchResultDTO> results = productService.updateStockBatch(requests);
+        return ResponseEntity.ok(results);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.inventory.controller;
+
+import com.inventory.dto.ProductDTO;
+import com.inventory.repository.ReactiveInventoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Lecturas de productos en la API reactiva. Mismas rutas y DTOs que
+ * {@link ProductController}, servidas en el puerto de la API reactiva.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReactiveProductHandler {
+    
+    private final ReactiveInventoryRepository repository;
+    
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+            .GET("/api/products/{id}", this::getProductById)
+            .GET("/api/products", this::streamProducts)
+            .build();
+    }
+    
+    private Mono<ServerResponse> getProductById(ServerRequest request) {
+        Long id = Long.valueOf(request.pathVariable("id"));
+        return repository.findProductById(id)
+            .switchIfEmpty(Mono.error(() -> new RuntimeException("Producto no encontrado")))
+            .flatMap(product -> ServerResponse.ok().bodyValue(product));
+    }
+    
+    // Catálogo en NDJSON por orden de id; afterId y limit permiten recorrerlo por páginas
+    private Mono<ServerResponse> streamProducts(ServerRequest request) {
+        Long categoriaId = request.queryParam("categoriaId").map(Long::valueOf).orElse(null);
+        long afterId = request.queryParam("afterId").map(Long::parseLong).orElse(0L);
+        long limit = request.queryParam("limit").map(Long::parseLong).orElse(Long.MAX_VALUE);
+        
+        return ServerResponse.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(repository.streamProducts(categoriaId, afterId).take(limit, true), ProductDTO.class);
+    }
+}
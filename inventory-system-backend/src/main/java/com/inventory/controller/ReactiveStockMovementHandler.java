@@ -0,0 +1,55 @@
+package com.inventory.controller;
+
+import com.inventory.dto.StockMovementDTO;
+import com.inventory.repository.ReactiveInventoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Lecturas de movimientos de stock en la API reactiva. El historial se sirve
+ * en NDJSON del más reciente al más antiguo, incluido el archivo.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReactiveStockMovementHandler {
+    
+    private final ReactiveInventoryRepository repository;
+    
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+            .GET("/api/stock-movements/product/{productoId}", this::streamByProduct)
+            .GET("/api/stock-movements/{id}", this::getMovementById)
+            .GET("/api/stock-movements", this::streamMovements)
+            .build();
+    }
+    
+    private Mono<ServerResponse> getMovementById(ServerRequest request) {
+        Long id = Long.valueOf(request.pathVariable("id"));
+        return repository.findMovementById(id)
+            .switchIfEmpty(Mono.error(() -> new RuntimeException("Movimiento no encontrado")))
+            .flatMap(movement -> ServerResponse.ok().bodyValue(movement));
+    }
+    
+    private Mono<ServerResponse> streamMovements(ServerRequest request) {
+        return ndjson(request, repository.streamMovements(null));
+    }
+    
+    private Mono<ServerResponse> streamByProduct(ServerRequest request) {
+        Long productoId = Long.valueOf(request.pathVariable("productoId"));
+        return ndjson(request, repository.streamMovements(productoId));
+    }
+    
+    private Mono<ServerResponse> ndjson(ServerRequest request, Flux<StockMovementDTO> movements) {
+        long limit = request.queryParam("limit").map(Long::parseLong).orElse(Long.MAX_VALUE);
+        return ServerResponse.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(movements.take(limit, true), StockMovementDTO.class);
+    }
+}
@@ -1,17 +1,43 @@
 package com.inventory.controller;
 
+import com.inventory.dto.FormatoArchivo;
+import com.inventory.dto.CursorPageDTO;
+import com.inventory.dto.ModoTotal;
 import com.inventory.dto.StockMovementDTO;
+import com.inventory.dto.StockRollupDTO;
 import com.inventory.entity.StockMovement;
+import com.inventory.entity.StockMovementArchive;
+import com.inventory.entity.StockMovementRollup.Granularidad;
+import com.inventory.entity.StockOpeningBalance;
+import com.inventory.repository.StockMovementArchiveRepository;
 import com.inventory.repository.StockMovementRepository;
+import com.inventory.repository.StockMovementRollupRepository;
+import com.inventory.repository.StockOpeningBalanceRepository;
+import com.inventory.service.PageTotals;
+import com.inventory.service.StockMovementBroadcaster;
+import com.inventory.service.StockMovementMapper;
+import com.inventory.service.StockRollupBackfill;
+import com.inventory.service.impl.ExportServiceImpl;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -21,51 +47,238 @@ import java.util.stream.Collectors;
 @Tag(name = "Movimientos de Stock", description = "API para consultar movimientos de inventario")
 public class StockMovementController {
     
+    private static final int MAX_PAGE_SIZE = 200;
+    
     private final StockMovementRepository stockMovementRepository;
+    private final StockMovementArchiveRepository archiveRepository;
+    private final StockOpeningBalanceRepository openingBalanceRepository;
+    private final ExportServiceImpl exportService;
+    private final StockMovementBroadcaster stockMovementBroadcaster;
+    private final StockMovementRollupRepository rollupRepository;
+    private final StockRollupBackfill rollupBackfill;
+    private final PageTotals pageTotals;
     
     @GetMapping
     @Operation(summary = "Obtener todos los movimientos de stock")
-    public ResponseEntity<Page<StockMovementDTO>> getAllMovements(
+    public ResponseEntity<Slice<StockMovementDTO>> getAllMovements(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "exacto") String total) {
+        
+        Pageable pageable = PageRequest.of(page, pageSize(size));
+        ModoTotal modo = ModoTotal.parse(total);
+        if (modo == ModoTotal.EXACTO) {
+            return ResponseEntity.ok(stockMovementRepository.findAllOrderByFechaDesc(pageable)
+                .map(StockMovementMapper::toDTO));
+        }
         
-        Pageable pageable = PageRequest.of(page, size);
-        Page<StockMovementDTO> movements = stockMovementRepository
-            .findAllOrderByFechaDesc(pageable)
-            .map(this::convertToDTO);
-        return ResponseEntity.ok(movements);
+        Slice<StockMovementDTO> movements = stockMovementRepository
+            .findSliceOrderByFechaDesc(pageable)
+            .map(StockMovementMapper::toDTO);
+        return ResponseEntity.ok(modo == ModoTotal.APROXIMADO
+            ? pageTotals.page(movements, PageTotals.Consulta.MOVIMIENTOS, null, null)
+            : movements);
     }
     
+    /**
+     * Primera página del historial del producto como lista. Antes devolvía el
+     * historial completo con el archivo incluido; ahora se corta en {@code size}
+     * y, si hay más, X-Next-Cursor permite seguir por /product/{id}/cursor.
+     */
+    @Deprecated
     @GetMapping("/product/{productoId}")
-    @Operation(summary = "Obtener movimientos de un producto específico")
-    public ResponseEntity<List<StockMovementDTO>> getMovementsByProduct(@PathVariable Long productoId) {
-        List<StockMovementDTO> movements = stockMovementRepository
-            .findByProductoIdOrderByFechaMovimientoDesc(productoId)
-            .stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
-        return ResponseEntity.ok(movements);
+    @Operation(summary = "Obtener movimientos de un producto específico (usar /product/{productoId}/cursor)",
+        deprecated = true)
+    public ResponseEntity<List<StockMovementDTO>> getMovementsByProduct(
+            @PathVariable Long productoId,
+            @RequestParam(defaultValue = "" + MAX_PAGE_SIZE) int size) {
+        
+        int limit = pageSize(size);
+        CursorPageDTO<StockMovementDTO> pagina = toCursorPage(findPage(productoId, null, limit + 1), limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (pagina.getNextCursor() != null) {
+            response.header("X-Next-Cursor", pagina.getNextCursor());
+        }
+        return response.body(pagina.getContent());
+    }
+    
+    @GetMapping("/cursor")
+    @Operation(summary = "Obtener movimientos de stock paginados por cursor")
+    public ResponseEntity<CursorPageDTO<StockMovementDTO>> getMovementsByCursor(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        Cursor cursor = after == null || after.isBlank() ? null : Cursor.decode(after);
+        int limit = pageSize(size);
+        return ResponseEntity.ok(toCursorPage(findPage(null, cursor, limit + 1), limit));
+    }
+    
+    @GetMapping("/product/{productoId}/cursor")
+    @Operation(summary = "Obtener movimientos de un producto paginados por cursor")
+    public ResponseEntity<CursorPageDTO<StockMovementDTO>> getMovementsByProductAndCursor(
+            @PathVariable Long productoId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        Cursor cursor = after == null || after.isBlank() ? null : Cursor.decode(after);
+        int limit = pageSize(size);
+        return ResponseEntity.ok(toCursorPage(findPage(productoId, cursor, limit + 1), limit));
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Exportar movimientos de stock en CSV o NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportMovements(
+            @RequestParam(defaultValue = "csv") String formato,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta) {
+        
+        FormatoArchivo formatoExport = FormatoArchivo.parse(formato);
+        StreamingResponseBody body = out -> exportService.exportMovements(out, formatoExport, desde, hasta);
+        return ResponseEntity.ok()
+            .contentType(formatoExport.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=movimientos." + formatoExport.getExtension())
+            .body(body);
+    }
+    
+    @GetMapping("/rollups")
+    @Operation(summary = "Obtener movimientos agregados por hora o día para gráficos")
+    public ResponseEntity<List<StockRollupDTO>> getRollups(
+            @RequestParam(required = false) Long productoId,
+            @RequestParam(defaultValue = "DIA") String granularidad,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta) {
+        
+        Granularidad nivel = Granularidad.parse(granularidad);
+        LocalDateTime fin = hasta != null ? hasta : LocalDateTime.now();
+        LocalDateTime inicio = desde != null ? desde : fin.minusDays(nivel == Granularidad.HORA ? 2 : 30);
+        
+        List<StockRollupDTO> rollups = productoId != null
+            ? rollupRepository.findByProducto(productoId, nivel, nivel.bucket(inicio), fin)
+            : rollupRepository.findTotales(nivel, nivel.bucket(inicio), fin);
+        return ResponseEntity.ok(rollups);
+    }
+    
+    @PostMapping("/rollups/backfill")
+    @Operation(summary = "Reconstruir en segundo plano los agregados a partir de los movimientos")
+    public ResponseEntity<Map<String, String>> backfillRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        
+        rollupBackfill.start(desde, hasta);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .body(Map.of("message", "Reconstrucción de agregados iniciada"));
+    }
+    
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Recibir los movimientos de stock en tiempo real (Server-Sent Events)")
+    public SseEmitter streamMovements(
+            @RequestParam(required = false) Long productoId,
+            @RequestParam(required = false) Long categoriaId) {
+        return stockMovementBroadcaster.subscribe(productoId, categoriaId);
     }
     
     @GetMapping("/{id}")
     @Operation(summary = "Obtener un movimiento por ID")
     public ResponseEntity<StockMovementDTO> getMovementById(@PathVariable Long id) {
-        StockMovement movement = stockMovementRepository.findById(id)
+        StockMovementDTO movement = stockMovementRepository.findById(id)
+            .map(StockMovementMapper::toDTO)
+            .or(() -> archiveRepository.findById(id).map(StockMovementMapper::toDTO))
             .orElseThrow(() -> new RuntimeException("Movimiento no encontrado"));
-        return ResponseEntity.ok(convertToDTO(movement));
+        return ResponseEntity.ok(movement);
     }
     
-    private StockMovementDTO convertToDTO(StockMovement movement) {
-        StockMovementDTO dto = new StockMovementDTO();
-        dto.setId(movement.getId());
-        dto.setProductoId(movement.getProducto().getId());
-        dto.setProductoNombre(movement.getProducto().getNombre());
-        dto.setTipo(movement.getTipo().name());
-        dto.setCantidad(movement.getCantidad());
-        dto.setStockAnterior(movement.getStockAnterior());
-        dto.setStockNuevo(movement.getStockNuevo());
-        dto.setMotivo(movement.getMotivo());
-        dto.setFechaMovimiento(movement.getFechaMovimiento());
-        return dto;
+    @GetMapping("/product/{productoId}/saldo-apertura")
+    @Operation(summary = "Obtener el stock de un producto al cierre de su último movimiento archivado")
+    public ResponseEntity<StockOpeningBalance> getOpeningBalance(@PathVariable Long productoId) {
+        StockOpeningBalance saldo = openingBalanceRepository.findById(productoId)
+            .orElseThrow(() -> new RuntimeException("El producto no tiene movimientos archivados"));
+        return ResponseEntity.ok(saldo);
+    }
+    
+    /**
+     * Lee hasta {@code limit} movimientos anteriores al cursor, del más reciente
+     * al más antiguo. Los archivados son siempre anteriores a los de la tabla
+     * principal, así que el archivo solo se consulta cuando esta se agota.
+     */
+    private List<StockMovementDTO> findPage(Long productoId, Cursor cursor, int limit) {
+        List<StockMovement> recientes;
+        if (cursor == null) {
+            recientes = productoId == null
+                ? stockMovementRepository.findLatest(PageRequest.of(0, limit))
+                : stockMovementRepository.findLatestByProductoId(productoId, PageRequest.of(0, limit));
+        } else {
+            recientes = productoId == null
+                ? stockMovementRepository.findBefore(cursor.fecha(), cursor.id(), PageRequest.of(0, limit))
+                : stockMovementRepository.findBeforeByProductoId(
+                    productoId, cursor.fecha(), cursor.id(), PageRequest.of(0, limit));
+        }
+        
+        List<StockMovementDTO> movements = recientes.stream()
+            .map(StockMovementMapper::toDTO)
+            .collect(Collectors.toList());
+        if (movements.size() >= limit) {
+            return movements;
+        }
+        
+        Pageable resto = PageRequest.of(0, limit - movements.size());
+        Cursor desde = movements.isEmpty() ? cursor : Cursor.of(movements.get(movements.size() - 1));
+        List<StockMovementArchive> archivados;
+        if (desde == null) {
+            archivados = productoId == null
+                ? archiveRepository.findLatest(resto)
+                : archiveRepository.findLatestByProductoId(productoId, resto);
+        } else {
+            archivados = productoId == null
+                ? archiveRepository.findBefore(desde.fecha(), desde.id(), resto)
+                : archiveRepository.findBeforeByProductoId(productoId, desde.fecha(), desde.id(), resto);
+        }
+        archivados.forEach(movement -> movements.add(StockMovementMapper.toDTO(movement)));
+        return movements;
+    }
+    
+    // Ninguna página puede pedir más de MAX_PAGE_SIZE filas
+    private static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+    
+    
+    
+    // Se consulta un elemento extra para saber si hay página siguiente sin ejecutar COUNT
+    private CursorPageDTO<StockMovementDTO> toCursorPage(List<StockMovementDTO> movements, int size) {
+        boolean hasNext = movements.size() > size;
+        List<StockMovementDTO> content = movements.stream()
+            .limit(size)
+            .collect(Collectors.toList());
+        
+        String nextCursor = null;
+        if (hasNext) {
+            nextCursor = Cursor.of(content.get(content.size() - 1)).encode();
+        }
+        return new CursorPageDTO<>(content, content.size(), hasNext, nextCursor);
+    }
+    
+    private record Cursor(LocalDateTime fecha, Long id) {
+        
+        static Cursor of(StockMovementDTO movement) {
+            return new Cursor(movement.getFechaMovimiento(), movement.getId());
+        }
+        
+        String encode() {
+            String raw = fecha + "," + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf(',');
+                return new Cursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+                );
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Cursor inválido");
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package com.inventory.dto;
+
+import org.springframework.http.MediaType;
+import java.nio.charset.StandardCharsets;
+
+public enum FormatoArchivo {
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson");
+    
+    private final MediaType mediaType;
+    private final String extension;
+    
+    FormatoArchivo(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+    
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+    
+    public String getExtension() {
+        return extension;
+    }
+    
+    public static FormatoArchivo parse(String formato) {
+        try {
+            return valueOf(formato.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Formato de archivo inválido");
+        }
+    }
+}
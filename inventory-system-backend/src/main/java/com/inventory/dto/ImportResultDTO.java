@@ -0,0 +1,27 @@
+package com.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDTO {
+    private long totalFilas;
+    private long importadas;
+    private long fallidas;
+    private long duracionMs;
+    private double filasPorSegundo;
+    private List<ImportErrorDTO> errores = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ImportErrorDTO {
+        private long fila;
+        private String mensaje;
+    }
+}
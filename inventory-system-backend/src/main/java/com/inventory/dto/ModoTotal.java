@@ -0,0 +1,20 @@
+package com.inventory.dto;
+
+/**
+ * Cómo se calcula el total de una página. EXACTO lanza el COUNT en cada
+ * petición, APROXIMADO usa un total cacheado que se refresca en segundo plano
+ * y NINGUNO devuelve un Slice sin total (solo hasNext).
+ */
+public enum ModoTotal {
+    EXACTO,
+    APROXIMADO,
+    NINGUNO;
+    
+    public static ModoTotal parse(String modo) {
+        try {
+            return valueOf(modo.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Modo de total inválido");
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBatchResultDTO {
+    private Integer indice;
+    private Long productoId;
+    private Boolean exitoso;
+    private String mensaje;
+    private Integer stockAnterior;
+    private Integer stockNuevo;
+}
@@ -0,0 +1,24 @@
+package com.inventory.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementRequestDTO {
+    @NotNull(message = "El producto es obligatorio")
+    private Long productoId;
+    
+    @NotNull(message = "El tipo de movimiento es obligatorio")
+    private String tipo;
+    
+    @NotNull(message = "La cantidad es obligatoria")
+    @Min(value = 0, message = "Cantidad inválida")
+    private Integer cantidad;
+    
+    @Size(max = 300, message = "El motivo no puede superar 300 caracteres")
+    private String motivo;
+}
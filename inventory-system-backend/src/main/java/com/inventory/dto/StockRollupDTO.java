@@ -0,0 +1,27 @@
+package com.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockRollupDTO {
+    private LocalDateTime bucketInicio;
+    private Long productoId;
+    private Long entradas;
+    private Long salidas;
+    private Long ajustes;
+    private Long ajusteNeto;
+    private Long movimientos;
+    
+    // Solo por producto: en los agregados de todos los productos es null
+    private Integer stockCierre;
+    
+    public StockRollupDTO(LocalDateTime bucketInicio, Long entradas, Long salidas, Long ajustes,
+                          Long ajusteNeto, Long movimientos) {
+        this(bucketInicio, null, entradas, salidas, ajustes, ajusteNeto, movimientos, null);
+    }
+}
@@ -5,11 +5,14 @@ import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "products")
+// El UPDATE solo lleva las columnas modificadas: editar el producto no reescribe stock_actual
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,6 +46,10 @@ public class Product {
     @Column(nullable = false)
     private Integer stockMinimo = 5;
     
+    // Columna generada (stock_minimo - stock_actual), indexada para las consultas de bajo stock
+    @Column(insertable = false, updatable = false)
+    private Integer deficit;
+    
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "categoria_id", nullable = false)
     @NotNull(message = "La categoría es obligatoria")
@@ -68,4 +75,4 @@ public class Product {
     public boolean isBajoStock() {
         return stockActual <= stockMinimo;
     }
-}
\ No newline at end of file
+}
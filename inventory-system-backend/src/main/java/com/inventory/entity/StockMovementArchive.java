@@ -0,0 +1,46 @@
+package com.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Movimiento de stock archivado por la política de retención. Conserva el id y
+ * los datos del movimiento original; siempre es anterior a cualquier movimiento
+ * que siga en {@code stock_movements}.
+ */
+@Entity
+@Table(name = "stock_movements_archive")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementArchive {
+    
+    @Id
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "producto_id", nullable = false)
+    private Product producto;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StockMovement.TipoMovimiento tipo;
+    
+    @Column(nullable = false)
+    private Integer cantidad;
+    
+    @Column(nullable = false)
+    private Integer stockAnterior;
+    
+    @Column(nullable = false)
+    private Integer stockNuevo;
+    
+    @Column(length = 300)
+    private String motivo;
+    
+    @Column(nullable = false)
+    private LocalDateTime fechaMovimiento;
+}
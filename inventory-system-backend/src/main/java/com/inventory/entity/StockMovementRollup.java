@@ -0,0 +1,79 @@
+package com.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Agregado de movimientos de stock de un producto en un intervalo (hora o día).
+ * Se mantiene de forma incremental al registrar cada movimiento.
+ */
+@Entity
+@Table(name = "stock_movement_rollups",
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_stock_movement_rollups_producto_bucket",
+        columnNames = {"producto_id", "granularidad", "bucket_inicio"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Granularidad granularidad;
+    
+    @Column(name = "bucket_inicio", nullable = false)
+    private LocalDateTime bucketInicio;
+    
+    @Column(nullable = false)
+    private Long entradas;
+    
+    @Column(nullable = false)
+    private Long salidas;
+    
+    @Column(nullable = false)
+    private Long ajustes;
+    
+    @Column(nullable = false)
+    private Long ajusteNeto;
+    
+    @Column(nullable = false)
+    private Long movimientos;
+    
+    @Column(nullable = false)
+    private Integer stockCierre;
+    
+    @Column(nullable = false)
+    private LocalDateTime fechaUltimoMovimiento;
+    
+    @Column(nullable = false)
+    private Long ultimoMovimientoId;
+    
+    public enum Granularidad {
+        HORA,
+        DIA;
+        
+        public LocalDateTime bucket(LocalDateTime fecha) {
+            return this == HORA
+                ? fecha.withMinute(0).withSecond(0).withNano(0)
+                : fecha.toLocalDate().atStartOfDay();
+        }
+        
+        public static Granularidad parse(String valor) {
+            try {
+                return Granularidad.valueOf(valor.trim().toUpperCase());
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new RuntimeException("Granularidad no soportada: " + valor);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Stock de un producto al cierre del último movimiento archivado. Es el punto
+ * de partida del historial que queda en {@code stock_movements}.
+ */
+@Entity
+@Table(name = "stock_opening_balances")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockOpeningBalance {
+    
+    @Id
+    @Column(name = "producto_id")
+    private Long productoId;
+    
+    @Column(nullable = false)
+    private Integer stockApertura;
+    
+    @Column(nullable = false)
+    private LocalDateTime fechaCorte;
+    
+    @Column(nullable = false)
+    private Long ultimoMovimientoId;
+}
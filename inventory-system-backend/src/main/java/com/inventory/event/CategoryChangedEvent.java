@@ -0,0 +1,15 @@
+package com.inventory.event;
+
+import lombok.Value;
+
+@Value
+public class CategoryChangedEvent {
+    Long categoriaId;
+    Tipo tipo;
+    
+    public enum Tipo {
+        CREADA,
+        ACTUALIZADA,
+        ELIMINADA
+    }
+}
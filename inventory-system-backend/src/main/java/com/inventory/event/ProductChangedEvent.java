@@ -0,0 +1,18 @@
+package com.inventory.event;
+
+import lombok.Value;
+
+/**
+ * Alta, modificación o baja de un producto. {@code anterior} es null en el alta
+ * y {@code actual} es null en la baja. Los cambios de stock se publican aparte
+ * como {@link StockChangedEvent}.
+ */
+@Value
+public class ProductChangedEvent {
+    ProductSnapshot anterior;
+    ProductSnapshot actual;
+    
+    public Long getProductoId() {
+        return actual != null ? actual.getId() : anterior.getId();
+    }
+}
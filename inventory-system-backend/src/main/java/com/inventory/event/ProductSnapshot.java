@@ -0,0 +1,38 @@
+package com.inventory.event;
+
+import com.inventory.entity.Product;
+import lombok.Value;
+import lombok.With;
+import java.math.BigDecimal;
+
+@Value
+@With
+public class ProductSnapshot {
+    Long id;
+    String nombre;
+    String descripcion;
+    BigDecimal precio;
+    Integer stockActual;
+    Integer stockMinimo;
+    Long categoriaId;
+    
+    public static ProductSnapshot of(Product product) {
+        return new ProductSnapshot(
+            product.getId(),
+            product.getNombre(),
+            product.getDescripcion(),
+            product.getPrecio(),
+            product.getStockActual(),
+            product.getStockMinimo(),
+            product.getCategoria().getId()
+        );
+    }
+    
+    public boolean isBajoStock() {
+        return stockActual <= stockMinimo;
+    }
+    
+    public BigDecimal getValorInventario() {
+        return precio.multiply(BigDecimal.valueOf(stockActual));
+    }
+}
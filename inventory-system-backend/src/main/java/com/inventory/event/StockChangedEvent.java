@@ -0,0 +1,18 @@
+package com.inventory.event;
+
+import com.inventory.dto.StockMovementDTO;
+import lombok.Value;
+
+/**
+ * Movimiento de stock registrado, con el estado del producto antes y después.
+ */
+@Value
+public class StockChangedEvent {
+    ProductSnapshot anterior;
+    ProductSnapshot actual;
+    StockMovementDTO movimiento;
+    
+    public Long getProductoId() {
+        return actual.getId();
+    }
+}
@@ -3,8 +3,11 @@ package com.inventory.repository;
 import com.inventory.entity.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
@@ -17,6 +20,13 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     
     Page<Category> findByNombreContainingIgnoreCase(String nombre, Pageable pageable);
     
+    // Página sin COUNT: una fila de más indica si hay página siguiente
+    Slice<Category> findSliceBy(Pageable pageable);
+    
     @Query("SELECT c FROM Category c LEFT JOIN FETCH c.productos")
     Page<Category> findAllWithProducts(Pageable pageable);
+    
+    @Modifying
+    @Query("DELETE FROM Category c WHERE c.id = :id")
+    int deleteCategoryById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -1,42 +1,138 @@
 package com.inventory.repository;
 
+import com.inventory.dto.ProductDTO;
 import com.inventory.entity.Product;
+import com.inventory.event.ProductSnapshot;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.LockModeType;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     
+    // Proyección de solo lectura: construye el DTO directamente, sin entidades gestionadas
+    String PRODUCT_DTO_SELECT =
+        "SELECT new com.inventory.dto.ProductDTO(p.id, p.nombre, p.descripcion, p.precio, p.stockActual, " +
+        "p.stockMinimo, c.id, c.nombre, p.fechaCreacion, p.fechaActualizacion, " +
+        "CASE WHEN p.stockActual <= p.stockMinimo THEN true ELSE false END) " +
+        "FROM Product p JOIN p.categoria c";
+    
+    String SEARCH_FILTER =
+        "LOWER(p.nombre) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+        "LOWER(p.descripcion) LIKE LOWER(CONCAT('%', :search, '%'))";
+    
     Page<Product> findByNombreContainingIgnoreCase(String nombre, Pageable pageable);
     
-    Page<Product> findByCategoriaId(Long categoriaId, Pageable pageable);
+    @Query(value = PRODUCT_DTO_SELECT, countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<ProductDTO> findAllAsDTO(Pageable pageable);
+    
+    @Query(value = PRODUCT_DTO_SELECT + " WHERE c.id = :categoriaId",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.categoria.id = :categoriaId")
+    Page<ProductDTO> findByCategoriaId(@Param("categoriaId") Long categoriaId, Pageable pageable);
+    
+    @Query(PRODUCT_DTO_SELECT + " WHERE p.id = :id")
+    Optional<ProductDTO> findDTOById(@Param("id") Long id);
+    
+    @Query(PRODUCT_DTO_SELECT + " WHERE p.id IN :ids")
+    List<ProductDTO> findAllAsDTOById(@Param("ids") Collection<Long> ids);
+    
+    boolean existsByCategoriaId(Long categoriaId);
+    
+    long countByCategoriaId(Long categoriaId);
     
-    @Query("SELECT p FROM Product p WHERE " +
-           "LOWER(p.nombre) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(p.descripcion) LIKE LOWER(CONCAT('%', :search, '%'))")
-    Page<Product> searchProducts(@Param("search") String search, Pageable pageable);
+    @Query("SELECT p.categoria.id, COUNT(p) FROM Product p WHERE p.categoria.id IN :categoriaIds " +
+           "GROUP BY p.categoria.id")
+    List<Object[]> countByCategoriaIds(@Param("categoriaIds") Collection<Long> categoriaIds);
     
-    @Query("SELECT p FROM Product p WHERE p.stockActual <= p.stockMinimo")
-    List<Product> findProductsBajoStock();
+    @Query(value = PRODUCT_DTO_SELECT + " WHERE " + SEARCH_FILTER,
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE " + SEARCH_FILTER)
+    Page<ProductDTO> searchProducts(@Param("search") String search, Pageable pageable);
     
-    @Query("SELECT COUNT(p) FROM Product p WHERE p.stockActual <= p.stockMinimo")
+    // Bajo stock = déficit >= 0; la columna generada deficit está indexada (idx_products_deficit)
+    @Query(PRODUCT_DTO_SELECT + " WHERE p.deficit >= 0 ORDER BY p.deficit DESC, p.id")
+    List<ProductDTO> findProductsBajoStock();
+    
+    @Query("SELECT new com.inventory.event.ProductSnapshot(p.id, p.nombre, p.descripcion, p.precio, " +
+           "p.stockActual, p.stockMinimo, p.categoria.id) FROM Product p WHERE p.deficit >= 0")
+    List<ProductSnapshot> findBajoStockSnapshots();
+    
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.deficit >= 0")
     Long countProductsBajoStock();
     
     @Query("SELECT SUM(p.precio * p.stockActual) FROM Product p")
     BigDecimal calculateTotalInventoryValue();
     
-    @Query("SELECT p FROM Product p WHERE p.categoria.id = :categoriaId AND " +
-           "(LOWER(p.nombre) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(p.descripcion) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<Product> searchProductsByCategory(
+    @Query(value = PRODUCT_DTO_SELECT + " WHERE c.id = :categoriaId AND (" + SEARCH_FILTER + ")",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.categoria.id = :categoriaId AND (" +
+                        SEARCH_FILTER + ")")
+    Page<ProductDTO> searchProductsByCategory(
+        @Param("categoriaId") Long categoriaId,
+        @Param("search") String search,
+        Pageable pageable
+    );
+    
+    // Variantes Slice: piden una fila de más para saber si hay página siguiente, sin COUNT
+    @Query(PRODUCT_DTO_SELECT)
+    Slice<ProductDTO> findSliceAsDTO(Pageable pageable);
+    
+    @Query(PRODUCT_DTO_SELECT + " WHERE c.id = :categoriaId")
+    Slice<ProductDTO> findSliceByCategoriaId(@Param("categoriaId") Long categoriaId, Pageable pageable);
+    
+    @Query(PRODUCT_DTO_SELECT + " WHERE " + SEARCH_FILTER)
+    Slice<ProductDTO> searchProductsSlice(@Param("search") String search, Pageable pageable);
+    
+    @Query(PRODUCT_DTO_SELECT + " WHERE c.id = :categoriaId AND (" + SEARCH_FILTER + ")")
+    Slice<ProductDTO> searchProductsByCategorySlice(
         @Param("categoriaId") Long categoriaId,
         @Param("search") String search,
         Pageable pageable
     );
+    
+    @Query("SELECT COUNT(p) FROM Product p WHERE " + SEARCH_FILTER)
+    long countSearch(@Param("search") String search);
+    
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.categoria.id = :categoriaId AND (" + SEARCH_FILTER + ")")
+    long countSearchByCategory(@Param("categoriaId") Long categoriaId, @Param("search") String search);
+    
+    @Modifying
+    @Query("UPDATE Product p SET p.stockActual = p.stockActual + :cantidad, p.fechaActualizacion = :fecha " +
+           "WHERE p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("cantidad") Integer cantidad, @Param("fecha") LocalDateTime fecha);
+    
+    @Modifying
+    @Query("UPDATE Product p SET p.stockActual = p.stockActual - :cantidad, p.fechaActualizacion = :fecha " +
+           "WHERE p.id = :id AND p.stockActual >= :cantidad")
+    int decrementStock(@Param("id") Long id, @Param("cantidad") Integer cantidad, @Param("fecha") LocalDateTime fecha);
+    
+    @Modifying
+    @Query("UPDATE Product p SET p.stockActual = :stock, p.fechaActualizacion = :fecha WHERE p.id = :id")
+    int setStock(@Param("id") Long id, @Param("stock") Integer stock, @Param("fecha") LocalDateTime fecha);
+    
+    @Query("SELECT new com.inventory.event.ProductSnapshot(p.id, p.nombre, p.descripcion, p.precio, " +
+           "p.stockActual, p.stockMinimo, p.categoria.id) FROM Product p WHERE p.id = :id")
+    Optional<ProductSnapshot> findSnapshotById(@Param("id") Long id);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT new com.inventory.event.ProductSnapshot(p.id, p.nombre, p.descripcion, p.precio, " +
+           "p.stockActual, p.stockMinimo, p.categoria.id) FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductSnapshot> findSnapshotsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
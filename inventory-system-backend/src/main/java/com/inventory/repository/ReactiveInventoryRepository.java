@@ -0,0 +1,155 @@
+package com.inventory.repository;
+
+import com.inventory.dto.ProductDTO;
+import com.inventory.dto.StockMovementDTO;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecturas de productos y movimientos por R2DBC. Los recorridos completos se
+ * piden a la base de datos en bloques por keyset y cada bloque se consulta solo
+ * cuando el cliente ha consumido el anterior, así que un cliente lento frena la
+ * lectura en lugar de acumular filas en memoria.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveInventoryRepository {
+    
+    private static final int CHUNK_SIZE = 500;
+    
+    private static final String PRODUCT_SELECT =
+        "SELECT p.id, p.nombre, p.descripcion, p.precio, p.stock_actual, p.stock_minimo, p.categoria_id, " +
+        "c.nombre AS categoria_nombre, p.fecha_creacion, p.fecha_actualizacion " +
+        "FROM products p JOIN categories c ON c.id = p.categoria_id";
+    
+    private static final String MOVEMENT_SELECT =
+        "SELECT m.id, m.producto_id, p.nombre AS producto_nombre, m.tipo, m.cantidad, m.stock_anterior, " +
+        "m.stock_nuevo, m.motivo, m.fecha_movimiento FROM %s m JOIN products p ON p.id = m.producto_id";
+    
+    private static final String[] MOVEMENT_TABLES = {"stock_movements", "stock_movements_archive"};
+    
+    private final DatabaseClient databaseClient;
+    
+    public Mono<ProductDTO> findProductById(Long id) {
+        return databaseClient.sql(PRODUCT_SELECT + " WHERE p.id = :id")
+            .bind("id", id)
+            .map(ReactiveInventoryRepository::toProduct)
+            .one();
+    }
+    
+    /**
+     * Productos en orden de id a partir de {@code afterId} (exclusivo),
+     * opcionalmente de una sola categoría.
+     */
+    public Flux<ProductDTO> streamProducts(Long categoriaId, long afterId) {
+        return chunkProducts(categoriaId, afterId).collectList()
+            .expand(chunk -> chunk.size() < CHUNK_SIZE
+                ? Mono.empty()
+                : chunkProducts(categoriaId, chunk.get(chunk.size() - 1).getId()).collectList())
+            .concatMapIterable(chunk -> chunk, 1);
+    }
+    
+    public Mono<StockMovementDTO> findMovementById(Long id) {
+        return databaseClient.sql(String.format(MOVEMENT_SELECT, MOVEMENT_TABLES[0]) + " WHERE m.id = :id")
+            .bind("id", id)
+            .map(ReactiveInventoryRepository::toMovement)
+            .one()
+            .switchIfEmpty(Mono.defer(() ->
+                databaseClient.sql(String.format(MOVEMENT_SELECT, MOVEMENT_TABLES[1]) + " WHERE m.id = :id")
+                    .bind("id", id)
+                    .map(ReactiveInventoryRepository::toMovement)
+                    .one()));
+    }
+    
+    /**
+     * Historial de movimientos del más reciente al más antiguo, opcionalmente
+     * de un solo producto. Al agotar la tabla principal continúa por el archivo:
+     * lo archivado es siempre anterior a lo que queda en la principal.
+     */
+    public Flux<StockMovementDTO> streamMovements(Long productoId) {
+        return Flux.concat(
+            Flux.defer(() -> streamMovements(MOVEMENT_TABLES[0], productoId)),
+            Flux.defer(() -> streamMovements(MOVEMENT_TABLES[1], productoId)));
+    }
+    
+    private Flux<StockMovementDTO> streamMovements(String tabla, Long productoId) {
+        return chunkMovements(tabla, productoId, null).collectList()
+            .expand(chunk -> chunk.size() < CHUNK_SIZE
+                ? Mono.empty()
+                : chunkMovements(tabla, productoId, chunk.get(chunk.size() - 1)).collectList())
+            .concatMapIterable(chunk -> chunk, 1);
+    }
+    
+    private Flux<ProductDTO> chunkProducts(Long categoriaId, long afterId) {
+        String sql = PRODUCT_SELECT + " WHERE p.id > :afterId"
+            + (categoriaId != null ? " AND p.categoria_id = :categoriaId" : "")
+            + " ORDER BY p.id LIMIT " + CHUNK_SIZE;
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql).bind("afterId", afterId);
+        if (categoriaId != null) {
+            spec = spec.bind("categoriaId", categoriaId);
+        }
+        return spec.map(ReactiveInventoryRepository::toProduct).all();
+    }
+    
+    private Flux<StockMovementDTO> chunkMovements(String tabla, Long productoId, StockMovementDTO after) {
+        List<String> condiciones = new ArrayList<>();
+        if (productoId != null) {
+            condiciones.add("m.producto_id = :productoId");
+        }
+        if (after != null) {
+            condiciones.add("(m.fecha_movimiento < :fecha OR (m.fecha_movimiento = :fecha AND m.id < :id))");
+        }
+        String sql = String.format(MOVEMENT_SELECT, tabla)
+            + (condiciones.isEmpty() ? "" : " WHERE " + String.join(" AND ", condiciones))
+            + " ORDER BY m.fecha_movimiento DESC, m.id DESC LIMIT " + CHUNK_SIZE;
+        
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+        if (productoId != null) {
+            spec = spec.bind("productoId", productoId);
+        }
+        if (after != null) {
+            spec = spec.bind("fecha", after.getFechaMovimiento()).bind("id", after.getId());
+        }
+        return spec.map(ReactiveInventoryRepository::toMovement).all();
+    }
+    
+    private static ProductDTO toProduct(Readable row) {
+        Integer stockActual = row.get("stock_actual", Integer.class);
+        Integer stockMinimo = row.get("stock_minimo", Integer.class);
+        return new ProductDTO(
+            row.get("id", Long.class),
+            row.get("nombre", String.class),
+            row.get("descripcion", String.class),
+            row.get("precio", BigDecimal.class),
+            stockActual,
+            stockMinimo,
+            row.get("categoria_id", Long.class),
+            row.get("categoria_nombre", String.class),
+            row.get("fecha_creacion", LocalDateTime.class),
+            row.get("fecha_actualizacion", LocalDateTime.class),
+            stockActual != null && stockMinimo != null && stockActual <= stockMinimo
+        );
+    }
+    
+    private static StockMovementDTO toMovement(Readable row) {
+        return new StockMovementDTO(
+            row.get("id", Long.class),
+            row.get("producto_id", Long.class),
+            row.get("producto_nombre", String.class),
+            row.get("tipo", String.class),
+            row.get("cantidad", Integer.class),
+            row.get("stock_anterior", Integer.class),
+            row.get("stock_nuevo", Integer.class),
+            row.get("motivo", String.class),
+            row.get("fecha_movimiento", LocalDateTime.class)
+        );
+    }
+}
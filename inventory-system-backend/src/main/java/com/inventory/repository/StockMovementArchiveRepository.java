@@ -0,0 +1,43 @@
+package com.inventory.repository;
+
+import com.inventory.entity.StockMovementArchive;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockMovementArchiveRepository extends JpaRepository<StockMovementArchive, Long> {
+    
+    List<StockMovementArchive> findByProductoIdOrderByFechaMovimientoDesc(Long productoId);
+    
+    @Query("SELECT sm FROM StockMovementArchive sm JOIN FETCH sm.producto " +
+           "ORDER BY sm.fechaMovimiento DESC, sm.id DESC")
+    List<StockMovementArchive> findLatest(Pageable pageable);
+    
+    @Query("SELECT sm FROM StockMovementArchive sm JOIN FETCH sm.producto " +
+           "WHERE sm.fechaMovimiento < :fecha OR (sm.fechaMovimiento = :fecha AND sm.id < :id) " +
+           "ORDER BY sm.fechaMovimiento DESC, sm.id DESC")
+    List<StockMovementArchive> findBefore(
+        @Param("fecha") LocalDateTime fecha,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+    
+    @Query("SELECT sm FROM StockMovementArchive sm JOIN FETCH sm.producto WHERE sm.producto.id = :productoId " +
+           "ORDER BY sm.fechaMovimiento DESC, sm.id DESC")
+    List<StockMovementArchive> findLatestByProductoId(@Param("productoId") Long productoId, Pageable pageable);
+    
+    @Query("SELECT sm FROM StockMovementArchive sm JOIN FETCH sm.producto WHERE sm.producto.id = :productoId AND " +
+           "(sm.fechaMovimiento < :fecha OR (sm.fechaMovimiento = :fecha AND sm.id < :id)) " +
+           "ORDER BY sm.fechaMovimiento DESC, sm.id DESC")
+    List<StockMovementArchive> findBeforeByProductoId(
+        @Param("productoId") Long productoId,
+        @Param("fecha") LocalDateTime fecha,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+}
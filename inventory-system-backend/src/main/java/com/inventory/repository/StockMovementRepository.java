@@ -3,6 +3,7 @@ package com.inventory.repository;
 import com.inventory.entity.StockMovement;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -23,10 +24,42 @@ public interface StockMovementRepository extends JpaRepository<StockMovement, Lo
         @Param("endDate") LocalDateTime endDate
     );
     
-    @Query("SELECT sm FROM StockMovement sm ORDER BY sm.fechaMovimiento DESC")
+    // id desempata los movimientos del mismo instante, como en las consultas por cursor
+    @Query("SELECT sm FROM StockMovement sm ORDER BY sm.fechaMovimiento DESC, sm.id DESC")
     Page<StockMovement> findAllOrderByFechaDesc(Pageable pageable);
     
+    // Misma página sin COUNT: una fila de más indica si hay página siguiente
+    @Query("SELECT sm FROM StockMovement sm ORDER BY sm.fechaMovimiento DESC, sm.id DESC")
+    Slice<StockMovement> findSliceOrderByFechaDesc(Pageable pageable);
+    
     @Query("SELECT sm FROM StockMovement sm WHERE sm.producto.id = :productoId " +
            "ORDER BY sm.fechaMovimiento DESC")
     List<StockMovement> findTop10ByProductoId(@Param("productoId") Long productoId, Pageable pageable);
-}
\ No newline at end of file
+    
+    @Query("SELECT sm FROM StockMovement sm JOIN FETCH sm.producto " +
+           "ORDER BY sm.fechaMovimiento DESC, sm.id DESC")
+    List<StockMovement> findLatest(Pageable pageable);
+    
+    @Query("SELECT sm FROM StockMovement sm JOIN FETCH sm.producto " +
+           "WHERE sm.fechaMovimiento < :fecha OR (sm.fechaMovimiento = :fecha AND sm.id < :id) " +
+           "ORDER BY sm.fechaMovimiento DESC, sm.id DESC")
+    List<StockMovement> findBefore(
+        @Param("fecha") LocalDateTime fecha,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+    
+    @Query("SELECT sm FROM StockMovement sm JOIN FETCH sm.producto WHERE sm.producto.id = :productoId " +
+           "ORDER BY sm.fechaMovimiento DESC, sm.id DESC")
+    List<StockMovement> findLatestByProductoId(@Param("productoId") Long productoId, Pageable pageable);
+    
+    @Query("SELECT sm FROM StockMovement sm JOIN FETCH sm.producto WHERE sm.producto.id = :productoId AND " +
+           "(sm.fechaMovimiento < :fecha OR (sm.fechaMovimiento = :fecha AND sm.id < :id)) " +
+           "ORDER BY sm.fechaMovimiento DESC, sm.id DESC")
+    List<StockMovement> findBeforeByProductoId(
+        @Param("productoId") Long productoId,
+        @Param("fecha") LocalDateTime fecha,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+}
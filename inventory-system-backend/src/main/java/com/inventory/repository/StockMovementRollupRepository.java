@@ -0,0 +1,41 @@
+package com.inventory.repository;
+
+import com.inventory.dto.StockRollupDTO;
+import com.inventory.entity.StockMovementRollup;
+import com.inventory.entity.StockMovementRollup.Granularidad;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockMovementRollupRepository extends JpaRepository<StockMovementRollup, Long> {
+    
+    @Query("SELECT new com.inventory.dto.StockRollupDTO(r.bucketInicio, r.productoId, r.entradas, r.salidas, " +
+           "r.ajustes, r.ajusteNeto, r.movimientos, r.stockCierre) FROM StockMovementRollup r " +
+           "WHERE r.productoId = :productoId AND r.granularidad = :granularidad " +
+           "AND r.bucketInicio >= :desde AND r.bucketInicio < :hasta ORDER BY r.bucketInicio")
+    List<StockRollupDTO> findByProducto(
+        @Param("productoId") Long productoId,
+        @Param("granularidad") Granularidad granularidad,
+        @Param("desde") LocalDateTime desde,
+        @Param("hasta") LocalDateTime hasta
+    );
+    
+    @Query("SELECT new com.inventory.dto.StockRollupDTO(r.bucketInicio, SUM(r.entradas), SUM(r.salidas), " +
+           "SUM(r.ajustes), SUM(r.ajusteNeto), SUM(r.movimientos)) FROM StockMovementRollup r " +
+           "WHERE r.granularidad = :granularidad AND r.bucketInicio >= :desde AND r.bucketInicio < :hasta " +
+           "GROUP BY r.bucketInicio ORDER BY r.bucketInicio")
+    List<StockRollupDTO> findTotales(
+        @Param("granularidad") Granularidad granularidad,
+        @Param("desde") LocalDateTime desde,
+        @Param("hasta") LocalDateTime hasta
+    );
+    
+    @Modifying
+    @Query("DELETE FROM StockMovementRollup r WHERE r.bucketInicio >= :desde AND r.bucketInicio < :hasta")
+    int deleteByBucketRange(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+}
@@ -0,0 +1,9 @@
+package com.inventory.repository;
+
+import com.inventory.entity.StockOpeningBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockOpeningBalanceRepository extends JpaRepository<StockOpeningBalance, Long> {
+}
@@ -0,0 +1,90 @@
+package com.inventory.service;
+
+import com.inventory.config.CacheConfig;
+import com.inventory.event.CategoryChangedEvent;
+import com.inventory.event.ProductChangedEvent;
+import com.inventory.event.ProductSnapshot;
+import com.inventory.event.StockChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Invalida las cachés de productos y categorías cuando se confirma una
+ * escritura, para que ninguna lectura posterior al commit vea datos antiguos.
+ *
+ * Una lectura que empezó antes del commit (o dentro de una transacción cuya
+ * instantánea es anterior) puede guardar la fila antigua justo después de la
+ * invalidación. Por eso cada invalidación se repite pasado un retardo mayor
+ * que lo que tarda una lectura: el dato antiguo dura como mucho ese retardo.
+ */
+@Component
+public class CacheInvalidator {
+    
+    private final CacheManager cacheManager;
+    private final TaskScheduler taskScheduler;
+    private final Duration segundaInvalidacion;
+    
+    public CacheInvalidator(
+            CacheManager cacheManager,
+            TaskScheduler taskScheduler,
+            @Value("${inventory.cache.second-eviction-ms:1000}") long segundaInvalidacionMs) {
+        this.cacheManager = cacheManager;
+        this.taskScheduler = taskScheduler;
+        this.segundaInvalidacion = Duration.ofMillis(segundaInvalidacionMs);
+    }
+    
+    @TransactionalEventListener
+    @Order(ResourceVersions.ORDEN_ESTADO)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(CacheConfig.PRODUCTS, event.getProductoId());
+        
+        // totalProductos cambia en las categorías de origen y destino
+        Long categoriaAnterior = categoriaId(event.getAnterior());
+        Long categoriaActual = categoriaId(event.getActual());
+        if (!Objects.equals(categoriaAnterior, categoriaActual)) {
+            evict(CacheConfig.CATEGORIES, categoriaAnterior);
+            evict(CacheConfig.CATEGORIES, categoriaActual);
+        }
+    }
+    
+    @TransactionalEventListener
+    @Order(ResourceVersions.ORDEN_ESTADO)
+    public void onStockChanged(StockChangedEvent event) {
+        evict(CacheConfig.PRODUCTS, event.getProductoId());
+    }
+    
+    @TransactionalEventListener
+    @Order(ResourceVersions.ORDEN_ESTADO)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        evict(CacheConfig.CATEGORIES, event.getCategoriaId());
+        
+        // Los productos cacheados llevan el nombre de su categoría
+        if (event.getTipo() == CategoryChangedEvent.Tipo.ACTUALIZADA) {
+            Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+            if (products != null) {
+                products.clear();
+                taskScheduler.schedule(products::clear, Instant.now().plus(segundaInvalidacion));
+            }
+        }
+    }
+    
+    private void evict(String cacheName, Long key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+            taskScheduler.schedule(() -> cache.evict(key), Instant.now().plus(segundaInvalidacion));
+        }
+    }
+    
+    private Long categoriaId(ProductSnapshot snapshot) {
+        return snapshot != null ? snapshot.getCategoriaId() : null;
+    }
+}
@@ -0,0 +1,218 @@
+package com.inventory.service;
+
+import com.inventory.dto.DashboardDTO;
+import com.inventory.event.CategoryChangedEvent;
+import com.inventory.event.ProductChangedEvent;
+import com.inventory.event.ProductSnapshot;
+import com.inventory.event.StockChangedEvent;
+import com.inventory.repository.CategoryRepository;
+import com.inventory.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Métricas del dashboard mantenidas en memoria a partir de los eventos de
+ * producto, stock y categoría confirmados. Una reconciliación periódica contra
+ * la base de datos corrige cualquier desviación.
+ *
+ * Entre el commit de una escritura y la aplicación de su evento hay una
+ * ventana en la que la base de datos ya la refleja y la memoria todavía no.
+ * Cada evento se cuenta como pendiente antes del commit y deja de estarlo al
+ * aplicarse (o al deshacerse la transacción); la reconciliación solo guarda
+ * una lectura durante la que no hubo eventos pendientes ni aplicados.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardAggregates {
+    
+    private static final int MAX_INTENTOS_RECONCILIACION = 5;
+    
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    
+    private final AtomicLong totalProductos = new AtomicLong();
+    private final AtomicLong totalCategorias = new AtomicLong();
+    private final AtomicLong productosBajoStock = new AtomicLong();
+    private final AtomicReference<BigDecimal> valorTotalInventario = new AtomicReference<>(BigDecimal.ZERO);
+    
+    // Serializa los eventos con la reconciliación; las lecturas no bloquean
+    private final ReentrantLock lock = new ReentrantLock();
+    private long modificaciones;
+    private long pendientes;
+    
+    private volatile boolean initialized;
+    
+    public boolean isInitialized() {
+        return initialized;
+    }
+    
+    public DashboardDTO toDTO() {
+        return new DashboardDTO(
+            totalProductos.get(),
+            totalCategorias.get(),
+            productosBajoStock.get(),
+            valorTotalInventario.get()
+        );
+    }
+    
+    public DashboardDTO loadFromDatabase() {
+        BigDecimal valorTotal = productRepository.calculateTotalInventoryValue();
+        return new DashboardDTO(
+            productRepository.count(),
+            categoryRepository.count(),
+            productRepository.countProductsBajoStock(),
+            valorTotal != null ? valorTotal : BigDecimal.ZERO
+        );
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+        initialDelayString = "${inventory.dashboard.reconcile-interval-ms:300000}",
+        fixedDelayString = "${inventory.dashboard.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        for (int intento = 0; intento < MAX_INTENTOS_RECONCILIACION; intento++) {
+            long antes = modificacionesActuales();
+            DashboardDTO real = loadFromDatabase();
+            
+            lock.lock();
+            try {
+                // Un evento aplicado durante la lectura puede no estar en ella, y uno
+                // pendiente puede estar en ella y aplicarse después: en ambos casos se repite
+                if (modificaciones != antes || pendientes > 0) {
+                    continue;
+                }
+                if (initialized && !real.equals(toDTO())) {
+                    log.warn("Agregados del dashboard desviados: memoria={}, base de datos={}", toDTO(), real);
+                }
+                
+                totalProductos.set(real.getTotalProductos());
+                totalCategorias.set(real.getTotalCategorias());
+                productosBajoStock.set(real.getProductosBajoStock());
+                valorTotalInventario.set(real.getValorTotalInventario());
+                initialized = true;
+                return;
+            } finally {
+                lock.unlock();
+            }
+        }
+        log.warn("No se pudieron reconciliar los agregados del dashboard por escrituras concurrentes; se reintentará");
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT,
+        classes = {ProductChangedEvent.class, StockChangedEvent.class, CategoryChangedEvent.class})
+    public void beforeCommit(Object event) {
+        lock.lock();
+        try {
+            modificaciones++;
+            pendientes++;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK,
+        classes = {ProductChangedEvent.class, StockChangedEvent.class, CategoryChangedEvent.class})
+    public void afterRollback(Object event) {
+        lock.lock();
+        try {
+            modificaciones++;
+            pendientes = Math.max(0, pendientes - 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @TransactionalEventListener
+    @Order(ResourceVersions.ORDEN_ESTADO)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.lock();
+        try {
+            aplicado();
+            if (event.getAnterior() == null) {
+                totalProductos.incrementAndGet();
+            } else if (event.getActual() == null) {
+                totalProductos.decrementAndGet();
+            }
+            remove(event.getAnterior());
+            add(event.getActual());
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @TransactionalEventListener
+    @Order(ResourceVersions.ORDEN_ESTADO)
+    public void onStockChanged(StockChangedEvent event) {
+        lock.lock();
+        try {
+            aplicado();
+            remove(event.getAnterior());
+            add(event.getActual());
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @TransactionalEventListener
+    @Order(ResourceVersions.ORDEN_ESTADO)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        lock.lock();
+        try {
+            aplicado();
+            if (event.getTipo() == CategoryChangedEvent.Tipo.CREADA) {
+                totalCategorias.incrementAndGet();
+            } else if (event.getTipo() == CategoryChangedEvent.Tipo.ELIMINADA) {
+                totalCategorias.decrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Solo bajo el lock
+    private void aplicado() {
+        modificaciones++;
+        pendientes = Math.max(0, pendientes - 1);
+    }
+    
+    private long modificacionesActuales() {
+        lock.lock();
+        try {
+            return modificaciones;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void add(ProductSnapshot snapshot) {
+        if (snapshot == null) {
+            return;
+        }
+        if (snapshot.isBajoStock()) {
+            productosBajoStock.incrementAndGet();
+        }
+        valorTotalInventario.accumulateAndGet(snapshot.getValorInventario(), BigDecimal::add);
+    }
+    
+    private void remove(ProductSnapshot snapshot) {
+        if (snapshot == null) {
+            return;
+        }
+        if (snapshot.isBajoStock()) {
+            productosBajoStock.decrementAndGet();
+        }
+        valorTotalInventario.accumulateAndGet(snapshot.getValorInventario(), BigDecimal::subtract);
+    }
+}
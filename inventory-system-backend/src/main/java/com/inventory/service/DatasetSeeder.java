@@ -0,0 +1,237 @@
+package com.inventory.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Genera datos sintéticos de categorías, productos y movimientos directamente
+ * por JDBC en lotes, sin pasar por JPA. Con la misma especificación (incluida
+ * la semilla) el resultado es idéntico en cada ejecución.
+ *
+ * La popularidad de los productos sigue una distribución de Zipf: unos pocos
+ * productos concentran la mayoría de los movimientos, como en un catálogo real.
+ * Las tablas deben estar vacías; no se publican eventos de dominio.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DatasetSeeder {
+    
+    private static final int BATCH_SIZE = 5000;
+    private static final int LOG_INTERVAL = 1_000_000;
+    private static final String[] PALABRAS = {
+        "tornillo", "tuerca", "arandela", "cable", "martillo", "taladro", "broca", "sierra", "cinta",
+        "pintura", "brocha", "rodillo", "guante", "casco", "lija", "pegamento", "silicona", "manguera",
+        "grifo", "bombilla", "enchufe", "interruptor", "tubo", "codo", "válvula", "llave", "alicate",
+        "destornillador", "nivel", "metro", "escalera", "carretilla", "pala", "rastrillo", "maceta"
+    };
+    private static final String[] MATERIALES = {
+        "acero", "acero inoxidable", "aluminio", "latón", "cobre", "plástico", "madera", "goma", "pvc"
+    };
+    
+    private static final String INSERT_CATEGORY =
+        "INSERT INTO categories (nombre, descripcion, fecha_creacion, fecha_actualizacion) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_PRODUCT =
+        "INSERT INTO products (nombre, descripcion, precio, stock_actual, stock_minimo, categoria_id, " +
+        "fecha_creacion, fecha_actualizacion) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_MOVEMENT =
+        "INSERT INTO stock_movements (id, producto_id, tipo, cantidad, stock_anterior, stock_nuevo, motivo, " +
+        "fecha_movimiento) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public record Spec(int categorias, int productos, long movimientos, int dias, double zipf, long semilla) {
+    }
+    
+    public boolean isEmpty() {
+        Long productos = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+        return productos == null || productos == 0;
+    }
+    
+    public void seed(Spec spec) {
+        if (!isEmpty()) {
+            throw new RuntimeException("La generación de datos requiere la tabla de productos vacía");
+        }
+        
+        long inicio = System.currentTimeMillis();
+        Random random = new Random(spec.semilla());
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        
+        insertCategories(spec, ahora);
+        int[] stock = insertProducts(spec, random, ahora);
+        insertMovements(spec, random, stock);
+        
+        List<Object[]> filas = new ArrayList<>(BATCH_SIZE);
+        for (int id = 1; id <= spec.productos(); id++) {
+            filas.add(new Object[] {stock[id], (long) id});
+            if (filas.size() == BATCH_SIZE) {
+                flush("UPDATE products SET stock_actual = ? WHERE id = ?", filas);
+            }
+        }
+        flush("UPDATE products SET stock_actual = ? WHERE id = ?", filas);
+        alignMovementSequence(spec.movimientos());
+        
+        log.info("Datos generados: {} categorías, {} productos, {} movimientos en {} s",
+            spec.categorias(), spec.productos(), spec.movimientos(), (System.currentTimeMillis() - inicio) / 1000);
+    }
+    
+    private void insertCategories(Spec spec, Timestamp ahora) {
+        List<Object[]> filas = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= spec.categorias(); i++) {
+            filas.add(new Object[] {"Categoría " + i, "Categoría sintética " + i, ahora, ahora});
+            if (filas.size() == BATCH_SIZE) {
+                flush(INSERT_CATEGORY, filas);
+            }
+        }
+        flush(INSERT_CATEGORY, filas);
+        checkIds("categories", spec.categorias());
+    }
+    
+    private int[] insertProducts(Spec spec, Random random, Timestamp ahora) {
+        int[] stock = new int[spec.productos() + 1];
+        List<Object[]> filas = new ArrayList<>(BATCH_SIZE);
+        for (int id = 1; id <= spec.productos(); id++) {
+            String palabra = PALABRAS[random.nextInt(PALABRAS.length)];
+            String material = MATERIALES[random.nextInt(MATERIALES.length)];
+            stock[id] = random.nextInt(200);
+            filas.add(new Object[] {
+                Character.toUpperCase(palabra.charAt(0)) + palabra.substring(1) + " de " + material + " " + id,
+                "Referencia " + id + ": " + palabra + " de " + material + " para uso profesional",
+                BigDecimal.valueOf(100 + random.nextInt(100_000), 2),
+                stock[id],
+                5 + random.nextInt(20),
+                1 + random.nextInt(spec.categorias()),
+                ahora,
+                ahora
+            });
+            if (filas.size() == BATCH_SIZE) {
+                flush(INSERT_PRODUCT, filas);
+            }
+        }
+        flush(INSERT_PRODUCT, filas);
+        checkIds("products", spec.productos());
+        return stock;
+    }
+    
+    // Movimientos en orden cronológico repartidos uniformemente en los últimos N días
+    private void insertMovements(Spec spec, Random random, int[] stock) {
+        ZipfSampler popularidad = new ZipfSampler(spec.productos(), spec.zipf(), random);
+        LocalDateTime inicio = LocalDateTime.now().minusDays(spec.dias());
+        double paso = spec.dias() * 86_400_000.0 / Math.max(1, spec.movimientos());
+        
+        List<Object[]> filas = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= spec.movimientos(); id++) {
+            int productoId = popularidad.next();
+            int cantidad = 1 + random.nextInt(20);
+            int anterior = stock[productoId];
+            int tirada = random.nextInt(100);
+            String tipo;
+            if (tirada < 5) {
+                tipo = "AJUSTE";
+                cantidad = random.nextInt(200);
+                stock[productoId] = cantidad;
+            } else if (tirada < 35 && anterior >= cantidad) {
+                tipo = "SALIDA";
+                stock[productoId] = anterior - cantidad;
+            } else {
+                tipo = "ENTRADA";
+                stock[productoId] = anterior + cantidad;
+            }
+            filas.add(new Object[] {
+                id, productoId, tipo, Math.max(1, cantidad), anterior, stock[productoId], "Movimiento sintético",
+                Timestamp.valueOf(inicio.plusNanos((long) (paso * id) * 1_000_000L))
+            });
+            if (filas.size() == BATCH_SIZE) {
+                flush(INSERT_MOVEMENT, filas);
+            }
+            if (id % LOG_INTERVAL == 0) {
+                log.info("Movimientos generados: {} de {}", id, spec.movimientos());
+            }
+        }
+        flush(INSERT_MOVEMENT, filas);
+    }
+    
+    private void flush(String sql, List<Object[]> filas) {
+        if (!filas.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, filas);
+            filas.clear();
+        }
+    }
+    
+    // Los ids se asumen consecutivos desde 1; solo es cierto sobre tablas vacías y recién creadas
+    private void checkIds(String tabla, long esperado) {
+        Long maximo = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + tabla, Long.class);
+        if (esperado > 0 && (maximo == null || maximo != esperado)) {
+            throw new RuntimeException("Ids no consecutivos en " + tabla + ": se requiere una base de datos nueva");
+        }
+    }
+    
+    /**
+     * Los movimientos se insertan con id explícito, así que la secuencia de
+     * Hibernate (allocationSize = 50) debe quedar por encima del máximo.
+     */
+    private void alignMovementSequence(long maximo) {
+        long siguiente = maximo + 100;
+        String producto = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        if ("H2".equals(producto)) {
+            jdbcTemplate.execute("ALTER SEQUENCE stock_movements_seq RESTART WITH " + siguiente);
+        } else {
+            // MySQL no tiene secuencias: Hibernate las emula con una tabla de una fila
+            jdbcTemplate.update("UPDATE stock_movements_seq SET next_val = ?", siguiente);
+        }
+    }
+    
+    /**
+     * Muestreo de Zipf por búsqueda binaria sobre la función de distribución
+     * acumulada. Los rangos se asignan a ids barajados para que los productos
+     * populares no sean siempre los primeros.
+     */
+    private static final class ZipfSampler {
+        private final double[] acumulada;
+        private final int[] ids;
+        private final Random random;
+        
+        private ZipfSampler(int n, double exponente, Random random) {
+            this.random = random;
+            this.acumulada = new double[n];
+            double total = 0;
+            for (int rango = 0; rango < n; rango++) {
+                total += 1.0 / Math.pow(rango + 1, exponente);
+                acumulada[rango] = total;
+            }
+            for (int rango = 0; rango < n; rango++) {
+                acumulada[rango] /= total;
+            }
+            
+            this.ids = new int[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = i + 1;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = ids[i];
+                ids[i] = ids[j];
+                ids[j] = tmp;
+            }
+        }
+        
+        private int next() {
+            int rango = Arrays.binarySearch(acumulada, random.nextDouble());
+            if (rango < 0) {
+                rango = -rango - 1;
+            }
+            return ids[Math.min(rango, ids.length - 1)];
+        }
+    }
+}
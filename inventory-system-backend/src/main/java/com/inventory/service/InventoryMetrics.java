@@ -0,0 +1,47 @@
+package com.inventory.service;
+
+import com.inventory.entity.StockMovement.TipoMovimiento;
+import com.inventory.event.StockChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Contadores de negocio del inventario. Los movimientos se cuentan tras el
+ * commit, de modo que las transacciones revertidas no suman.
+ */
+@Component
+public class InventoryMetrics {
+    
+    private final Map<TipoMovimiento, Counter> movimientos = new EnumMap<>(TipoMovimiento.class);
+    private final Counter stockInsuficiente;
+    
+    public InventoryMetrics(MeterRegistry registry) {
+        for (TipoMovimiento tipo : TipoMovimiento.values()) {
+            movimientos.put(tipo, Counter.builder("inventory.stock.movements")
+                .description("Movimientos de stock confirmados")
+                .tag("tipo", tipo.name())
+                .register(registry));
+        }
+        this.stockInsuficiente = Counter.builder("inventory.stock.rejections")
+            .description("Salidas rechazadas por stock insuficiente")
+            .tag("motivo", "stock_insuficiente")
+            .register(registry);
+    }
+    
+    @TransactionalEventListener
+    public void onStockChanged(StockChangedEvent event) {
+        movimientos.get(TipoMovimiento.valueOf(event.getMovimiento().getTipo())).increment();
+    }
+    
+    /**
+     * Cuenta el rechazo y devuelve la excepción para lanzarla en el punto de llamada.
+     */
+    public RuntimeException stockInsuficiente() {
+        stockInsuficiente.increment();
+        return new RuntimeException("Stock insuficiente");
+    }
+}
@@ -0,0 +1,189 @@
+package com.inventory.service;
+
+import com.inventory.event.ProductChangedEvent;
+import com.inventory.event.ProductSnapshot;
+import com.inventory.event.StockChangedEvent;
+import com.inventory.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conjunto en memoria de los productos con stock actual menor o igual al
+ * mínimo, ordenado por déficit (mayor primero). Se mantiene con los eventos
+ * de producto y stock confirmados, se reconstruye al arrancar y se contrasta
+ * periódicamente con la consulta SQL.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LowStockTracker {
+    
+    private static final int MAX_INTENTOS_RECARGA = 3;
+    
+    private static final Comparator<Entry> POR_DEFICIT = Comparator
+        .comparingInt(Entry::deficit).reversed()
+        .thenComparing(Entry::id);
+    
+    private final ProductRepository productRepository;
+    
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> ordered = new ConcurrentSkipListSet<>(POR_DEFICIT);
+    
+    // Serializa escrituras; las lecturas recorren el conjunto sin bloquear
+    private final ReentrantLock lock = new ReentrantLock();
+    private long modificaciones;
+    
+    private volatile boolean ready;
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public long count() {
+        return entries.size();
+    }
+    
+    /**
+     * Devuelve los ids de la página solicitada, ordenados por déficit, y el
+     * total de productos con bajo stock que cumplen el filtro.
+     */
+    public PageResult page(Long categoriaId, long offset, int limit) {
+        List<Long> ids = new ArrayList<>();
+        long total = 0;
+        for (Entry entry : ordered) {
+            if (categoriaId != null && !categoriaId.equals(entry.categoriaId())) {
+                continue;
+            }
+            if (total >= offset && ids.size() < limit) {
+                ids.add(entry.id());
+            }
+            total++;
+        }
+        return new PageResult(ids, total);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        reload(false);
+    }
+    
+    @Scheduled(
+        initialDelayString = "${inventory.low-stock.check-interval-ms:300000}",
+        fixedDelayString = "${inventory.low-stock.check-interval-ms:300000}")
+    public void verify() {
+        reload(true);
+    }
+    
+    @TransactionalEventListener
+    @Order(ResourceVersions.ORDEN_ESTADO)
+    public void onProductChanged(ProductChangedEvent event) {
+        apply(event.getProductoId(), event.getActual());
+    }
+    
+    @TransactionalEventListener
+    @Order(ResourceVersions.ORDEN_ESTADO)
+    public void onStockChanged(StockChangedEvent event) {
+        apply(event.getProductoId(), event.getActual());
+    }
+    
+    private void apply(Long id, ProductSnapshot actual) {
+        Entry entry = actual != null && actual.isBajoStock() ? Entry.of(actual) : null;
+        
+        lock.lock();
+        try {
+            modificaciones++;
+            Entry previous = entry != null ? entries.put(id, entry) : entries.remove(id);
+            if (previous != null) {
+                ordered.remove(previous);
+            }
+            if (entry != null) {
+                ordered.add(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Carga el conjunto desde la base de datos. Si durante la lectura llega algún
+     * evento, la lectura puede haber quedado atrás y se repite.
+     */
+    private void reload(boolean verificar) {
+        for (int intento = 0; intento < MAX_INTENTOS_RECARGA; intento++) {
+            long antes = modificacionesActuales();
+            
+            Map<Long, Entry> real = new HashMap<>();
+            for (ProductSnapshot snapshot : productRepository.findBajoStockSnapshots()) {
+                real.put(snapshot.getId(), Entry.of(snapshot));
+            }
+            
+            lock.lock();
+            try {
+                if (modificaciones != antes) {
+                    continue;
+                }
+                if (verificar && !real.equals(entries)) {
+                    log.warn("Conjunto de bajo stock desviado: memoria={} productos, base de datos={} productos",
+                        entries.size(), real.size());
+                }
+                replace(real);
+                ready = true;
+                return;
+            } finally {
+                lock.unlock();
+            }
+        }
+        log.warn("No se pudo recargar el conjunto de bajo stock por escrituras concurrentes; se reintentará");
+    }
+    
+    private long modificacionesActuales() {
+        lock.lock();
+        try {
+            return modificaciones;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Aplica solo las diferencias para que las lecturas no vean el conjunto vacío
+    private void replace(Map<Long, Entry> real) {
+        entries.values().removeIf(entry -> {
+            if (!entry.equals(real.get(entry.id()))) {
+                ordered.remove(entry);
+                return true;
+            }
+            return false;
+        });
+        real.forEach((id, entry) -> {
+            if (entries.putIfAbsent(id, entry) == null) {
+                ordered.add(entry);
+            }
+        });
+    }
+    
+    private record Entry(Long id, Long categoriaId, int deficit) {
+        
+        static Entry of(ProductSnapshot snapshot) {
+            return new Entry(snapshot.getId(), snapshot.getCategoriaId(),
+                snapshot.getStockMinimo() - snapshot.getStockActual());
+        }
+    }
+    
+    public record PageResult(List<Long> ids, long total) {
+    }
+}
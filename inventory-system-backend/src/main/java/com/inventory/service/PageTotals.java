@@ -0,0 +1,159 @@
+package com.inventory.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.inventory.event.CategoryChangedEvent;
+import com.inventory.event.ProductChangedEvent;
+import com.inventory.repository.CategoryRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.StockMovementRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totales cacheados para la paginación en modo APROXIMADO. Cada COUNT se
+ * guarda por consulta y filtros; pasado el intervalo de refresco se sigue
+ * sirviendo el valor anterior mientras se recalcula en segundo plano, así que
+ * ninguna petición espera a un COUNT salvo la primera de cada clave.
+ *
+ * Las altas y bajas de productos y categorías recalculan al confirmarse los
+ * totales que cambian: el global y los de las categorías afectadas. Los de
+ * búsqueda y los movimientos no: hay uno por término buscado (y cualquier
+ * escritura podría afectar a todos) o se crean en cada cambio de stock, así
+ * que solo se refrescan por intervalo.
+ *
+ * Los totales de búsqueda van en una caché aparte y más pequeña, para que los
+ * términos de texto libre no expulsen a los totales de listados.
+ */
+@Component
+public class PageTotals {
+    
+    public enum Consulta {
+        PRODUCTOS,
+        PRODUCTOS_CATEGORIA,
+        BUSQUEDA,
+        BUSQUEDA_CATEGORIA,
+        CATEGORIAS,
+        MOVIMIENTOS
+    }
+    
+    private record Clave(Consulta consulta, Long categoriaId, String busqueda) {
+    }
+    
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final LoadingCache<Clave, Long> totales;
+    private final LoadingCache<Clave, Long> busquedas;
+    // Duración de cada COUNT: es lo que se ahorra cada página servida sin él
+    private final Map<Consulta, Timer> timers = new EnumMap<>(Consulta.class);
+    
+    public PageTotals(
+            ProductRepository productRepository,
+            CategoryRepository categoryRepository,
+            StockMovementRepository stockMovementRepository,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.page-totals.refresh-ms:30000}") long refreshMs,
+            @Value("${inventory.page-totals.expire-ms:600000}") long expireMs,
+            @Value("${inventory.page-totals.max-size:10000}") long maxSize,
+            @Value("${inventory.page-totals.max-busquedas:1000}") long maxBusquedas) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.totales = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .refreshAfterWrite(Duration.ofMillis(refreshMs))
+            .expireAfterAccess(Duration.ofMillis(expireMs))
+            .recordStats()
+            .build(this::count);
+        this.busquedas = Caffeine.newBuilder()
+            .maximumSize(maxBusquedas)
+            .refreshAfterWrite(Duration.ofMillis(refreshMs))
+            .expireAfterAccess(Duration.ofMillis(expireMs))
+            .recordStats()
+            .build(this::count);
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, totales, "inventory.page.totals");
+        CaffeineCacheMetrics.monitor(meterRegistry, busquedas, "inventory.page.totals.busquedas");
+        for (Consulta consulta : Consulta.values()) {
+            timers.put(consulta, Timer.builder("inventory.page.totals.count")
+                .tag("consulta", consulta.name().toLowerCase())
+                .register(meterRegistry));
+        }
+    }
+    
+    public long total(Consulta consulta, Long categoriaId, String busqueda) {
+        Clave clave = new Clave(consulta, categoriaId, busqueda);
+        return esBusqueda(consulta) ? busquedas.get(clave) : totales.get(clave);
+    }
+    
+    /**
+     * Convierte un Slice en Page con el total cacheado. El total nunca queda
+     * por debajo de lo que la propia página demuestra que existe.
+     */
+    public <T> Page<T> page(Slice<T> slice, Consulta consulta, Long categoriaId, String busqueda) {
+        long visto = slice.getPageable().isPaged()
+            ? slice.getPageable().getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0)
+            : slice.getNumberOfElements();
+        long total = Math.max(total(consulta, categoriaId, busqueda), visto);
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+    }
+    
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Long categoriaAnterior = event.getAnterior() != null ? event.getAnterior().getCategoriaId() : null;
+        Long categoriaActual = event.getActual() != null ? event.getActual().getCategoriaId() : null;
+        if (event.getAnterior() == null || event.getActual() == null) {
+            refresh(new Clave(Consulta.PRODUCTOS, null, null));
+        }
+        // En una modificación sin cambio de categoría ningún total de listado se mueve
+        if (!Objects.equals(categoriaAnterior, categoriaActual)) {
+            refresh(new Clave(Consulta.PRODUCTOS_CATEGORIA, categoriaAnterior, null));
+            refresh(new Clave(Consulta.PRODUCTOS_CATEGORIA, categoriaActual, null));
+        }
+    }
+    
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getTipo() != CategoryChangedEvent.Tipo.ACTUALIZADA) {
+            refresh(new Clave(Consulta.CATEGORIAS, null, null));
+        }
+    }
+    
+    // Solo las claves ya cacheadas: las demás se calcularán en su primera lectura
+    private void refresh(Clave clave) {
+        if (totales.asMap().containsKey(clave)) {
+            totales.refresh(clave);
+        }
+    }
+    
+    private static boolean esBusqueda(Consulta consulta) {
+        return consulta == Consulta.BUSQUEDA || consulta == Consulta.BUSQUEDA_CATEGORIA;
+    }
+    
+    private Long count(Clave clave) {
+        long inicio = System.nanoTime();
+        long total = switch (clave.consulta()) {
+            case PRODUCTOS -> productRepository.count();
+            case PRODUCTOS_CATEGORIA -> productRepository.countByCategoriaId(clave.categoriaId());
+            case BUSQUEDA -> productRepository.countSearch(clave.busqueda());
+            case BUSQUEDA_CATEGORIA -> productRepository.countSearchByCategory(clave.categoriaId(), clave.busqueda());
+            case CATEGORIAS -> categoryRepository.count();
+            case MOVIMIENTOS -> stockMovementRepository.count();
+        };
+        timers.get(clave.consulta()).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        return total;
+    }
+}
@@ -0,0 +1,379 @@
+package com.inventory.service;
+
+import com.inventory.event.ProductChangedEvent;
+import com.inventory.event.ProductSnapshot;
+import com.inventory.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de trigramas sobre nombre y descripción de los productos.
+ * Resuelve búsquedas por subcadena sin recorrer la tabla: los trigramas de la
+ * consulta acotan los candidatos y después se verifica la coincidencia real.
+ *
+ * Cada lista de trigramas es un long[] ordenado (8 bytes por entrada, frente a
+ * los ~60 de un Long en un conjunto concurrente) y la página se elige con un
+ * montículo acotado a offset + limit, sin ordenar todas las coincidencias.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+    
+    private static final int GRAM = 3;
+    private static final int WARMUP_BATCH_SIZE = 1000;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    
+    private final ProductRepository productRepository;
+    
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final Map<String, Posting> postings = new ConcurrentHashMap<>();
+    private final Set<Long> removedDuringWarmup = ConcurrentHashMap.newKeySet();
+    
+    private volatile boolean ready;
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Thread thread = new Thread(this::build, "product-search-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void build() {
+        long inicio = System.currentTimeMillis();
+        long lastId = 0L;
+        List<ProductSnapshot> batch;
+        do {
+            batch = productRepository.findSnapshotsAfter(lastId, PageRequest.of(0, WARMUP_BATCH_SIZE));
+            for (ProductSnapshot snapshot : batch) {
+                indexIfAbsent(snapshot);
+                lastId = snapshot.getId();
+            }
+        } while (batch.size() == WARMUP_BATCH_SIZE);
+        
+        ready = true;
+        removedDuringWarmup.clear();
+        log.info("Índice de búsqueda de productos listo: {} productos en {} ms",
+            documents.size(), System.currentTimeMillis() - inicio);
+    }
+    
+    @TransactionalEventListener
+    @Order(ResourceVersions.ORDEN_ESTADO)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductSnapshot actual = event.getActual();
+        if (actual == null) {
+            // Antes de borrar: la carga lo comprueba dentro del compute sobre el mismo id
+            if (!ready) {
+                removedDuringWarmup.add(event.getProductoId());
+            }
+            remove(event.getProductoId());
+            return;
+        }
+        
+        ProductSnapshot anterior = event.getAnterior();
+        if (anterior != null
+                && Objects.equals(anterior.getNombre(), actual.getNombre())
+                && Objects.equals(anterior.getDescripcion(), actual.getDescripcion())
+                && Objects.equals(anterior.getCategoriaId(), actual.getCategoriaId())
+                && documents.containsKey(actual.getId())) {
+            return;
+        }
+        index(actual);
+    }
+    
+    /**
+     * Devuelve los ids de la página solicitada ordenados por relevancia:
+     * prefijo del nombre, prefijo de una palabra del nombre, subcadena del
+     * nombre y, por último, subcadena de la descripción.
+     */
+    public SearchResult search(String query, Long categoriaId, long offset, int limit) {
+        String termino = normalize(query);
+        Comparator<Match> orden = Comparator
+            .comparingInt(Match::score).reversed()
+            .thenComparing(match -> match.document().nombre())
+            .thenComparing(match -> match.document().id());
+        
+        // Montículo con las offset + limit mejores coincidencias; la cabeza es la peor
+        long capacidad = Math.max(0, offset) + Math.max(0, limit);
+        PriorityQueue<Match> mejores = new PriorityQueue<>(orden.reversed());
+        long total = 0;
+        for (Document document : candidates(termino)) {
+            if (categoriaId != null && !categoriaId.equals(document.categoriaId())) {
+                continue;
+            }
+            if (!document.nombre().contains(termino) && !document.descripcion().contains(termino)) {
+                continue;
+            }
+            total++;
+            if (capacidad == 0) {
+                continue;
+            }
+            Match match = new Match(document, score(document, termino));
+            if (mejores.size() < capacidad) {
+                mejores.add(match);
+            } else if (orden.compare(match, mejores.peek()) < 0) {
+                mejores.poll();
+                mejores.add(match);
+            }
+        }
+        
+        List<Match> pagina = new ArrayList<>(mejores);
+        pagina.sort(orden);
+        List<Long> ids = pagina.stream()
+            .skip(offset)
+            .limit(limit)
+            .map(match -> match.document().id())
+            .toList();
+        return new SearchResult(ids, total);
+    }
+    
+    private Iterable<Document> candidates(String termino) {
+        if (termino.length() < GRAM) {
+            return documents.values();
+        }
+        
+        List<Posting> lists = new ArrayList<>();
+        for (String gram : grams(termino)) {
+            Posting posting = postings.get(gram);
+            if (posting == null) {
+                return List.of();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Posting::size));
+        
+        // Se parte de la lista más corta y se filtra contra las demás
+        long[] ids = lists.get(0).toArray();
+        int n = ids.length;
+        for (int i = 1; i < lists.size() && n > 0; i++) {
+            n = lists.get(i).retain(ids, n);
+        }
+        
+        List<Document> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Document document = documents.get(ids[i]);
+            if (document != null) {
+                result.add(document);
+            }
+        }
+        return result;
+    }
+    
+    private int score(Document document, String termino) {
+        if (document.nombre().startsWith(termino)) {
+            return 4;
+        }
+        if (document.nombre().contains(" " + termino)) {
+            return 3;
+        }
+        if (document.nombre().contains(termino)) {
+            return 2;
+        }
+        return 1;
+    }
+    
+    private void index(ProductSnapshot snapshot) {
+        Document document = toDocument(snapshot);
+        Document previous = documents.put(document.id(), document);
+        Set<String> oldGrams = previous != null ? gramsOf(previous) : Set.of();
+        Set<String> newGrams = gramsOf(document);
+        
+        for (String gram : oldGrams) {
+            if (!newGrams.contains(gram)) {
+                unlink(gram, document.id());
+            }
+        }
+        for (String gram : newGrams) {
+            if (!oldGrams.contains(gram)) {
+                link(gram, document.id());
+            }
+        }
+    }
+    
+    /**
+     * Carga inicial: los eventos recibidos durante la carga son más recientes
+     * que la lectura, así que el documento solo se guarda si ningún evento lo
+     * ha indexado o borrado ya. Comprobación e inserción son atómicas por id.
+     */
+    private void indexIfAbsent(ProductSnapshot snapshot) {
+        Document document = toDocument(snapshot);
+        boolean[] insertado = new boolean[1];
+        documents.compute(document.id(), (id, actual) -> {
+            if (actual != null || removedDuringWarmup.contains(id)) {
+                return actual;
+            }
+            insertado[0] = true;
+            return document;
+        });
+        if (insertado[0]) {
+            gramsOf(document).forEach(gram -> link(gram, document.id()));
+        }
+    }
+    
+    private static Document toDocument(ProductSnapshot snapshot) {
+        return new Document(
+            snapshot.getId(),
+            normalize(snapshot.getNombre()),
+            normalize(snapshot.getDescripcion()),
+            snapshot.getCategoriaId()
+        );
+    }
+    
+    private void remove(Long id) {
+        Document previous = documents.remove(id);
+        if (previous != null) {
+            gramsOf(previous).forEach(gram -> unlink(gram, id));
+        }
+    }
+    
+    private void link(String gram, Long id) {
+        postings.compute(gram, (key, posting) -> {
+            Posting result = posting != null ? posting : new Posting();
+            result.add(id);
+            return result;
+        });
+    }
+    
+    private void unlink(String gram, Long id) {
+        postings.computeIfPresent(gram, (key, posting) -> posting.remove(id) ? null : posting);
+    }
+    
+    private Set<String> gramsOf(Document document) {
+        Set<String> grams = grams(document.nombre());
+        grams.addAll(grams(document.descripcion()));
+        return grams;
+    }
+    
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+    
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String sinAcentos = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return sinAcentos.toLowerCase(Locale.ROOT).trim();
+    }
+    
+    private record Document(Long id, String nombre, String descripcion, Long categoriaId) {
+    }
+    
+    private record Match(Document document, int score) {
+    }
+    
+    /**
+     * Ids de los productos que contienen un trigrama, ordenados. La carga
+     * inicial y las altas llegan en orden creciente de id, así que casi todas
+     * las inserciones son al final del array.
+     *
+     * Las escrituras ya llegan serializadas por el compute del mapa; el lock
+     * de lectura/escritura aísla de ellas a las búsquedas, que leen a la vez.
+     * No se usa synchronized: un hilo virtual bloqueado en un monitor fija su
+     * hilo portador.
+     */
+    private static final class Posting {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private long[] ids = new long[4];
+        private int size;
+        
+        void add(long id) {
+            lock.writeLock().lock();
+            try {
+                int i = Arrays.binarySearch(ids, 0, size, id);
+                if (i >= 0) {
+                    return;
+                }
+                i = -i - 1;
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+                }
+                System.arraycopy(ids, i, ids, i + 1, size - i);
+                ids[i] = id;
+                size++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        // Devuelve true si la lista queda vacía
+        boolean remove(long id) {
+            lock.writeLock().lock();
+            try {
+                int i = Arrays.binarySearch(ids, 0, size, id);
+                if (i >= 0) {
+                    System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                    size--;
+                }
+                return size == 0;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        int size() {
+            lock.readLock().lock();
+            try {
+                return size;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        
+        long[] toArray() {
+            lock.readLock().lock();
+            try {
+                return Arrays.copyOf(ids, size);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        
+        // Compacta en candidatos los n primeros que también están en esta lista
+        int retain(long[] candidatos, int n) {
+            lock.readLock().lock();
+            try {
+                int kept = 0;
+                for (int i = 0; i < n; i++) {
+                    if (Arrays.binarySearch(ids, 0, size, candidatos[i]) >= 0) {
+                        candidatos[kept++] = candidatos[i];
+                    }
+                }
+                return kept;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+    
+    public record SearchResult(List<Long> ids, long total) {
+    }
+}
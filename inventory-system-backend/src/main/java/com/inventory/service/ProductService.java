@@ -1,8 +1,12 @@
 package com.inventory.service;
 
+import com.inventory.dto.ModoTotal;
 import com.inventory.dto.ProductDTO;
+import com.inventory.dto.StockBatchResultDTO;
+import com.inventory.dto.StockMovementRequestDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import java.util.List;
 
 public interface ProductService {
@@ -12,7 +16,12 @@ public interface ProductService {
     ProductDTO getProductById(Long id);
     Page<ProductDTO> getAllProducts(Pageable pageable);
     Page<ProductDTO> searchProducts(String search, Pageable pageable);
+    Page<ProductDTO> searchProducts(String search, Long categoriaId, Pageable pageable);
     Page<ProductDTO> getProductsByCategory(Long categoriaId, Pageable pageable);
-    List<ProductDTO> getProductsBajoStock();
+    Slice<ProductDTO> getAllProducts(Pageable pageable, ModoTotal modo);
+    Slice<ProductDTO> searchProducts(String search, Long categoriaId, Pageable pageable, ModoTotal modo);
+    Slice<ProductDTO> getProductsByCategory(Long categoriaId, Pageable pageable, ModoTotal modo);
+    Page<ProductDTO> getProductsBajoStock(Long categoriaId, Pageable pageable);
     void updateStock(Long id, Integer cantidad, String tipo, String motivo);
+    List<StockBatchResultDTO> updateStockBatch(List<StockMovementRequestDTO> requests);
 }
\ No newline at end of file
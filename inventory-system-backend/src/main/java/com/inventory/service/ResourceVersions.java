@@ -0,0 +1,162 @@
+package com.inventory.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.inventory.event.CategoryChangedEvent;
+import com.inventory.event.ProductChangedEvent;
+import com.inventory.event.ProductSnapshot;
+import com.inventory.event.StockChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.WebRequest;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores de versión por tipo de recurso, incrementados en cada escritura
+ * confirmada. Permiten generar ETags sin consultar la base de datos: mientras
+ * la versión no cambie, la respuesta para una misma URL tampoco.
+ *
+ * Las lecturas por id usan además la versión de la propia entidad, para que
+ * escribir en un producto no invalide el ETag de todos los demás.
+ */
+@Component
+public class ResourceVersions {
+    
+    /**
+     * Orden de los listeners posteriores al commit. Los que actualizan estado
+     * en memoria (cachés, índice, agregados) van antes que el incremento de
+     * versión; si no, una lectura concurrente podría guardar datos anteriores
+     * a la escritura bajo el ETag nuevo.
+     */
+    public static final int ORDEN_ESTADO = 0;
+    public static final int ORDEN_VERSION = 100;
+    
+    public enum Recurso {
+        PRODUCTOS,
+        CATEGORIAS,
+        DASHBOARD
+    }
+    
+    // Distingue instancias y reinicios, ya que los contadores empiezan en cero
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Recurso, AtomicLong> versions = new EnumMap<>(Recurso.class);
+    private final Map<Recurso, Entidades> entidades = new EnumMap<>(Recurso.class);
+    
+    public ResourceVersions(@Value("${inventory.etag.max-entidades:100000}") long maxEntidades) {
+        for (Recurso recurso : Recurso.values()) {
+            versions.put(recurso, new AtomicLong());
+        }
+        entidades.put(Recurso.PRODUCTOS, new Entidades(maxEntidades));
+        entidades.put(Recurso.CATEGORIAS, new Entidades(maxEntidades));
+    }
+    
+    /**
+     * ETag fuerte para la petición indicada (ruta y parámetros) en la versión
+     * actual del recurso.
+     */
+    public String etag(Recurso recurso, WebRequest request) {
+        return etag(recurso, Long.toString(versions.get(recurso).get()), request);
+    }
+    
+    /**
+     * ETag fuerte para la lectura de una sola entidad. Los productos llevan el
+     * nombre de su categoría, así que su ETag cambia también al modificar
+     * cualquier categoría.
+     */
+    public String etag(Recurso recurso, Long id, WebRequest request) {
+        String version = Long.toString(entidades.get(recurso).version(id));
+        if (recurso == Recurso.PRODUCTOS) {
+            version += "." + versions.get(Recurso.CATEGORIAS).get();
+        }
+        return etag(recurso, version, request);
+    }
+    
+    private String etag(Recurso recurso, String version, WebRequest request) {
+        StringBuilder url = new StringBuilder(request.getDescription(false));
+        new TreeMap<>(request.getParameterMap()).forEach((name, values) ->
+            url.append('&').append(name).append('=').append(String.join(",", values)));
+        
+        return "\"" + recurso.name().toLowerCase() + "-" + epoch + "-" + version + "-"
+            + Integer.toHexString(url.toString().hashCode()) + "\"";
+    }
+    
+    @TransactionalEventListener
+    @Order(ORDEN_VERSION)
+    public void onProductChanged(ProductChangedEvent event) {
+        bump(Recurso.PRODUCTOS, Recurso.CATEGORIAS, Recurso.DASHBOARD);
+        bump(Recurso.PRODUCTOS, event.getProductoId());
+        // totalProductos cambia en las categorías de origen y destino
+        bump(Recurso.CATEGORIAS, categoriaId(event.getAnterior()));
+        bump(Recurso.CATEGORIAS, categoriaId(event.getActual()));
+    }
+    
+    @TransactionalEventListener
+    @Order(ORDEN_VERSION)
+    public void onStockChanged(StockChangedEvent event) {
+        bump(Recurso.PRODUCTOS, Recurso.DASHBOARD);
+        bump(Recurso.PRODUCTOS, event.getProductoId());
+    }
+    
+    @TransactionalEventListener
+    @Order(ORDEN_VERSION)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        bump(Recurso.CATEGORIAS, Recurso.PRODUCTOS, Recurso.DASHBOARD);
+        bump(Recurso.CATEGORIAS, event.getCategoriaId());
+    }
+    
+    private void bump(Recurso... recursos) {
+        for (Recurso recurso : recursos) {
+            versions.get(recurso).incrementAndGet();
+        }
+    }
+    
+    // Se llama después del incremento global, así que la versión nueva supera a cualquier anterior
+    private void bump(Recurso recurso, Long id) {
+        if (id != null) {
+            entidades.get(recurso).bump(id, versions.get(recurso).get());
+        }
+    }
+    
+    private Long categoriaId(ProductSnapshot snapshot) {
+        return snapshot != null ? snapshot.getCategoriaId() : null;
+    }
+    
+    /**
+     * Versión de cada entidad escrita desde el arranque, con tamaño acotado. Una
+     * entidad sin entrada (nunca escrita o expulsada) usa la mayor versión
+     * expulsada: nunca es menor que la última que se sirvió para ella, y la
+     * siguiente escritura le da una mayor que cualquiera de las anteriores.
+     */
+    private static final class Entidades {
+        
+        private final AtomicLong expulsada = new AtomicLong();
+        private final Cache<Long, Long> porId;
+        
+        Entidades(long maxSize) {
+            // El listener de expulsión es síncrono: el mínimo sube antes de que la entrada desaparezca
+            this.porId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .<Long, Long>evictionListener((id, version, causa) -> {
+                    if (causa == RemovalCause.SIZE && version != null) {
+                        expulsada.accumulateAndGet(version, Math::max);
+                    }
+                })
+                .build();
+        }
+        
+        long version(Long id) {
+            Long version = porId.getIfPresent(id);
+            return version != null ? version : expulsada.get();
+        }
+        
+        void bump(Long id, long version) {
+            porId.asMap().merge(id, version, Math::max);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.inventory.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Perfil {@code scale-test}: genera el conjunto de datos sintético al arrancar
+ * si la base de datos está vacía. Se ejecuta antes de ApplicationReadyEvent,
+ * así que los índices y agregados en memoria se construyen ya con los datos.
+ */
+@Slf4j
+@Component
+@Profile("scale-test")
+public class ScaleTestSeeder {
+    
+    private final DatasetSeeder datasetSeeder;
+    private final StockRollupBackfill rollupBackfill;
+    private final DatasetSeeder.Spec spec;
+    private final boolean rollups;
+    
+    public ScaleTestSeeder(
+            DatasetSeeder datasetSeeder,
+            StockRollupBackfill rollupBackfill,
+            @Value("${inventory.seed.categories:200}") int categorias,
+            @Value("${inventory.seed.products:1000000}") int productos,
+            @Value("${inventory.seed.movements:50000000}") long movimientos,
+            @Value("${inventory.seed.days:730}") int dias,
+            @Value("${inventory.seed.zipf-exponent:1.1}") double zipf,
+            @Value("${inventory.seed.seed:42}") long semilla,
+            @Value("${inventory.seed.rollups:true}") boolean rollups) {
+        this.datasetSeeder = datasetSeeder;
+        this.rollupBackfill = rollupBackfill;
+        this.spec = new DatasetSeeder.Spec(categorias, productos, movimientos, dias, zipf, semilla);
+        this.rollups = rollups;
+    }
+    
+    @EventListener(ApplicationStartedEvent.class)
+    public void seed() {
+        if (!datasetSeeder.isEmpty()) {
+            log.info("Base de datos con productos: se reutilizan los datos existentes");
+            return;
+        }
+        log.info("Generando datos sintéticos: {}", spec);
+        datasetSeeder.seed(spec);
+        if (rollups) {
+            rollupBackfill.start(null, null);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.inventory.service;
+
+import com.inventory.dto.StockBatchResultDTO;
+import lombok.extern.slf4j.Slf4j;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Partes comunes del despachador y del diario de movimientos: encolar un
+ * movimiento, esperar su resultado, aplicar un lote reintentando de uno en uno
+ * si la transacción falla y rechazar lo pendiente al detenerse.
+ */
+@Slf4j
+final class StockBatches {
+    
+    interface Pending {
+        CompletableFuture<StockBatchResultDTO> future();
+    }
+    
+    private StockBatches() {
+    }
+    
+    static <P extends Pending> CompletableFuture<StockBatchResultDTO> enqueue(BlockingQueue<P> queue, P pending,
+                                                                         String saturada) {
+        if (!queue.offer(pending)) {
+            throw new RuntimeException(saturada);
+        }
+        return pending.future();
+    }
+    
+    // Espera el resultado y lo convierte en la misma excepción que lanzaría updateStock
+    static void await(CompletableFuture<StockBatchResultDTO> future) {
+        StockBatchResultDTO result;
+        try {
+            result = future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        
+        if (!result.getExitoso()) {
+            throw new RuntimeException(result.getMensaje());
+        }
+    }
+    
+    /**
+     * Aplica el lote con commit, que completa los futuros. Un movimiento que
+     * rompe la transacción no debe arrastrar al resto: se reintentan de uno en
+     * uno y cada llamada recibe su propio resultado. Devuelve true si hubo que
+     * reintentar.
+     */
+    static <P extends Pending> boolean apply(List<P> batch, Consumer<List<P>> commit) {
+        try {
+            commit.accept(batch);
+            return false;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future().completeExceptionally(e);
+                return false;
+            }
+            log.warn("Error aplicando lote de {} movimientos de stock, se reintentan por separado", batch.size(), e);
+            for (P pending : batch) {
+                try {
+                    commit.accept(List.of(pending));
+                } catch (RuntimeException individual) {
+                    pending.future().completeExceptionally(individual);
+                }
+            }
+            return true;
+        }
+    }
+    
+    static void failPending(BlockingQueue<? extends Pending> queue, String mensaje) {
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future().completeExceptionally(new RuntimeException(mensaje));
+        }
+    }
+}
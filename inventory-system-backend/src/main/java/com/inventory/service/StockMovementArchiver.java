@@ -0,0 +1,164 @@
+package com.inventory.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Política de retención de movimientos de stock: los anteriores a N meses se
+ * mueven a {@code stock_movements_archive} en lotes pequeños, cada uno en su
+ * propia transacción, del más antiguo al más reciente. Por cada producto se
+ * guarda el stock tras su último movimiento archivado como saldo de apertura.
+ *
+ * El saldo se escribe con INSERT ... ON DUPLICATE KEY UPDATE, que solo
+ * entienden MySQL, MariaDB y H2 en modo MySQL (el de las pruebas). Con otra
+ * base de datos cada ejecución falla antes de mover ningún movimiento.
+ */
+@Slf4j
+@Component
+public class StockMovementArchiver {
+    
+    private static final String SELECT_LOTE =
+        "SELECT id, producto_id, stock_nuevo, fecha_movimiento FROM stock_movements " +
+        "WHERE fecha_movimiento < ? ORDER BY fecha_movimiento, id LIMIT ?";
+    
+    private static final String INSERT_ARCHIVO =
+        "INSERT INTO stock_movements_archive " +
+        "(id, producto_id, tipo, cantidad, stock_anterior, stock_nuevo, motivo, fecha_movimiento) " +
+        "SELECT id, producto_id, tipo, cantidad, stock_anterior, stock_nuevo, motivo, fecha_movimiento " +
+        "FROM stock_movements WHERE id IN (:ids)";
+    
+    private static final String DELETE_LOTE = "DELETE FROM stock_movements WHERE id IN (:ids)";
+    
+    private static final Set<String> BASES_CON_UPSERT = Set.of("MySQL", "MariaDB", "H2");
+    
+    // Los lotes avanzan en orden cronológico, así que cada lote trae el saldo más reciente.
+    // Sintaxis de MySQL: ver admiteUpsert()
+    private static final String UPSERT_SALDO =
+        "INSERT INTO stock_opening_balances (producto_id, stock_apertura, fecha_corte, ultimo_movimiento_id) " +
+        "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+        "stock_apertura = VALUES(stock_apertura), " +
+        "fecha_corte = VALUES(fecha_corte), " +
+        "ultimo_movimiento_id = VALUES(ultimo_movimiento_id)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int months;
+    private final int batchSize;
+    private final long pauseMs;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile String baseDeDatos;
+    
+    public StockMovementArchiver(
+            JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedJdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.retention.enabled:false}") boolean enabled,
+            @Value("${inventory.retention.months:12}") int months,
+            @Value("${inventory.retention.batch-size:1000}") int batchSize,
+            @Value("${inventory.retention.pause-ms:200}") long pauseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.months = months;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+    }
+    
+    @Scheduled(cron = "${inventory.retention.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            archive();
+        }
+    }
+    
+    /**
+     * Archiva todos los movimientos anteriores al corte. Devuelve cuántos se
+     * movieron; si ya hay una ejecución en curso no hace nada.
+     */
+    public long archive() {
+        if (!admiteUpsert()) {
+            throw new RuntimeException("La retención de movimientos requiere MySQL: " + baseDeDatos + " no admite "
+                + "INSERT ... ON DUPLICATE KEY UPDATE");
+        }
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        
+        try {
+            LocalDateTime corte = LocalDateTime.now().minusMonths(months);
+            long inicio = System.currentTimeMillis();
+            long total = 0;
+            int movidos;
+            do {
+                movidos = archiveBatch(corte);
+                total += movidos;
+                if (movidos == batchSize && pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            } while (movidos == batchSize);
+            
+            if (total > 0) {
+                log.info("Retención de movimientos: {} archivados anteriores a {} en {} ms",
+                    total, corte, System.currentTimeMillis() - inicio);
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    private boolean admiteUpsert() {
+        if (baseDeDatos == null) {
+            baseDeDatos = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        }
+        return BASES_CON_UPSERT.contains(baseDeDatos);
+    }
+    
+    private int archiveBatch(LocalDateTime corte) {
+        Integer movidos = transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            Map<Long, Object[]> saldos = new LinkedHashMap<>();
+            jdbcTemplate.query(SELECT_LOTE, (RowCallbackHandler) rs -> {
+                long id = rs.getLong("id");
+                ids.add(id);
+                // Filas en orden cronológico: la última de cada producto es su saldo
+                saldos.put(rs.getLong("producto_id"), new Object[] {
+                    rs.getLong("producto_id"), rs.getInt("stock_nuevo"), rs.getTimestamp("fecha_movimiento"), id
+                });
+            }, Timestamp.valueOf(corte), batchSize);
+            
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            Map<String, Object> params = Map.of("ids", ids);
+            namedJdbcTemplate.update(INSERT_ARCHIVO, params);
+            jdbcTemplate.batchUpdate(UPSERT_SALDO, new ArrayList<>(saldos.values()));
+            namedJdbcTemplate.update(DELETE_LOTE, params);
+            return ids.size();
+        });
+        return movidos != null ? movidos : 0;
+    }
+}
@@ -0,0 +1,219 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.config.VirtualThreads;
+import com.inventory.event.StockChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Difunde por Server-Sent Events los movimientos de stock confirmados. Cada
+ * suscriptor tiene un buffer acotado y no ocupa ningún hilo mientras está
+ * inactivo; un pool compartido vacía los buffers con pendientes. Si un cliente
+ * no consume al ritmo de los eventos y su buffer se llena, se le desconecta
+ * (el EventSource del navegador se reconecta por sí solo).
+ */
+@Slf4j
+@Component
+public class StockMovementBroadcaster {
+    
+    private static final String EVENTO = "stock-movement";
+    private static final Set<DataWithMediaType> PING = SseEmitter.event().comment("ping").build();
+    
+    private final ObjectMapper objectMapper;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Executor senders;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    
+    public StockMovementBroadcaster(
+            ObjectMapper objectMapper,
+            Environment environment,
+            @Value("${inventory.stream.sender-threads:4}") int senderThreads,
+            @Value("${inventory.stream.buffer-size:256}") int bufferSize,
+            @Value("${inventory.stream.max-subscribers:10000}") int maxSubscribers,
+            @Value("${inventory.stream.timeout-ms:3600000}") long timeoutMs) {
+        this.objectMapper = objectMapper;
+        if (VirtualThreads.isActive(environment)) {
+            // Un hilo virtual por vaciado: un cliente lento no retiene el envío a los demás
+            this.senders = new VirtualThreadTaskExecutor("stock-stream-");
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+                Thread thread = new Thread(runnable, "stock-stream-" + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+    }
+    
+    @PreDestroy
+    void stop() {
+        if (senders instanceof ExecutorService pool) {
+            pool.shutdownNow();
+        }
+        subscribers.forEach(StockMovementBroadcaster::complete);
+        subscribers.clear();
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    /**
+     * Registra un suscriptor. Los filtros son opcionales; con ambos a null
+     * recibe todos los movimientos.
+     */
+    public SseEmitter subscribe(Long productoId, Long categoriaId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new RuntimeException("Límite de suscriptores alcanzado");
+        }
+        
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, productoId, categoriaId, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        
+        // Confirma la conexión al cliente y a los proxies intermedios
+        enqueue(subscriber, SseEmitter.event().comment("conectado").build());
+        return emitter;
+    }
+    
+    @TransactionalEventListener
+    public void onStockChanged(StockChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Long productoId = event.getProductoId();
+        Long categoriaId = event.getActual().getCategoriaId();
+        
+        // Se serializa una sola vez y el mismo evento se comparte entre suscriptores
+        Set<DataWithMediaType> sse;
+        try {
+            sse = SseEmitter.event()
+                .id(String.valueOf(event.getMovimiento().getId()))
+                .name(EVENTO)
+                .data(objectMapper.writeValueAsString(event.getMovimiento()))
+                .build();
+        } catch (JsonProcessingException e) {
+            log.warn("No se pudo serializar el movimiento {}", event.getMovimiento().getId(), e);
+            return;
+        }
+        
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.accepts(productoId, categoriaId)) {
+                continue;
+            }
+            if (!enqueue(subscriber, sse)) {
+                log.debug("Suscriptor lento desconectado: buffer de {} eventos lleno", bufferSize);
+                close(subscriber);
+            }
+        }
+    }
+    
+    // Mantiene viva la conexión y detecta clientes que se fueron sin cerrar
+    @Scheduled(fixedDelayString = "${inventory.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, PING);
+        }
+    }
+    
+    private boolean enqueue(Subscriber subscriber, Set<DataWithMediaType> sse) {
+        if (!subscriber.buffer.offer(sse)) {
+            return false;
+        }
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> flush(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled.set(false);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Envía los eventos pendientes de un suscriptor. Solo un hilo vacía cada
+     * buffer a la vez, de modo que los eventos llegan en orden.
+     */
+    private void flush(Subscriber subscriber) {
+        do {
+            Set<DataWithMediaType> sse;
+            while ((sse = subscriber.buffer.poll()) != null) {
+                try {
+                    subscriber.emitter.send(sse);
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(subscriber);
+                    subscriber.buffer.clear();
+                    return;
+                }
+            }
+            subscriber.scheduled.set(false);
+            // Un evento encolado justo antes de liberar el flag quedaría sin enviar
+        } while (!subscriber.buffer.isEmpty() && subscriber.scheduled.compareAndSet(false, true));
+    }
+    
+    private void close(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.buffer.clear();
+            complete(subscriber);
+        }
+    }
+    
+    // Un cliente que se fue sin que se notara deja la respuesta ya reciclada por Tomcat
+    private static void complete(Subscriber subscriber) {
+        try {
+            subscriber.emitter.complete();
+        } catch (IllegalStateException e) {
+            log.debug("Suscriptor ya desconectado al cerrar el stream");
+        }
+    }
+    
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Long productoId;
+        private final Long categoriaId;
+        private final BlockingQueue<Set<DataWithMediaType>> buffer;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        
+        private Subscriber(SseEmitter emitter, Long productoId, Long categoriaId,
+                           BlockingQueue<Set<DataWithMediaType>> buffer) {
+            this.emitter = emitter;
+            this.productoId = productoId;
+            this.categoriaId = categoriaId;
+            this.buffer = buffer;
+        }
+        
+        private boolean accepts(Long productoId, Long categoriaId) {
+            return (this.productoId == null || this.productoId.equals(productoId))
+                && (this.categoriaId == null || this.categoriaId.equals(categoriaId));
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.inventory.service;
+
+import com.inventory.dto.StockBatchResultDTO;
+import com.inventory.dto.StockMovementRequestDTO;
+import com.inventory.service.impl.ProductServiceImpl;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Commit agrupado de movimientos de stock. Las peticiones concurrentes se
+ * encolan y un único escritor las aplica juntas en una transacción con lotes
+ * JDBC, en cuanto hay {@code batch-size} pendientes o pasa
+ * {@code flush-interval-ms} desde la primera. Cada llamada vuelve cuando la
+ * transacción de su lote ha hecho commit, así que un acuse implica que el
+ * movimiento es durable. Con un solo escritor se respeta el orden de llegada.
+ */
+@Component
+public class StockMovementJournal {
+    
+    private final ProductService productService;
+    private final boolean enabled;
+    private final long flushIntervalNanos;
+    private final int batchSize;
+    private final BlockingQueue<PendingMovement> queue;
+    
+    private final DistributionSummary batchFill;
+    private final Timer waitTime;
+    private final Timer commitTime;
+    private final Counter flushesLleno;
+    private final Counter flushesIntervalo;
+    private final Counter reintentos;
+    
+    private volatile boolean running;
+    private Thread writer;
+    
+    public StockMovementJournal(
+            ProductService productService,
+            MeterRegistry meterRegistry,
+            @Value("${inventory.stock.journal.enabled:false}") boolean enabled,
+            @Value("${inventory.stock.journal.flush-interval-ms:5}") long flushIntervalMs,
+            @Value("${inventory.stock.journal.batch-size:200}") int batchSize,
+            @Value("${inventory.stock.journal.queue-capacity:10000}") int queueCapacity) {
+        this.productService = productService;
+        this.enabled = enabled;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.batchSize = Math.min(Math.max(batchSize, 1), ProductServiceImpl.MAX_BATCH_SIZE);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        
+        this.batchFill = DistributionSummary.builder("inventory.stock.journal.batch.size")
+            .description("Movimientos aplicados en cada commit del diario")
+            .baseUnit("movimientos")
+            .register(meterRegistry);
+        this.waitTime = Timer.builder("inventory.stock.journal.wait")
+            .description("Tiempo desde que se encola un movimiento hasta que su lote hace commit")
+            .register(meterRegistry);
+        this.commitTime = Timer.builder("inventory.stock.journal.commit")
+            .description("Duración de la transacción de cada lote")
+            .register(meterRegistry);
+        this.flushesLleno = Counter.builder("inventory.stock.journal.flushes")
+            .description("Lotes escritos según el motivo del vaciado")
+            .tag("motivo", "lleno")
+            .register(meterRegistry);
+        this.flushesIntervalo = Counter.builder("inventory.stock.journal.flushes")
+            .description("Lotes escritos según el motivo del vaciado")
+            .tag("motivo", "intervalo")
+            .register(meterRegistry);
+        this.reintentos = Counter.builder("inventory.stock.journal.retries")
+            .description("Lotes fallidos que se reintentaron movimiento a movimiento")
+            .register(meterRegistry);
+        Gauge.builder("inventory.stock.journal.pending", queue, BlockingQueue::size)
+            .description("Movimientos en cola esperando lote")
+            .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::run, "stock-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void updateStock(Long id, Integer cantidad, String tipo, String motivo) {
+        StockBatches.await(submit(new StockMovementRequestDTO(id, tipo, cantidad, motivo)));
+    }
+    
+    public CompletableFuture<StockBatchResultDTO> submit(StockMovementRequestDTO request) {
+        if (!running) {
+            throw new RuntimeException("El diario de movimientos no está activo");
+        }
+        
+        return StockBatches.enqueue(queue, new PendingMovement(request, new CompletableFuture<>(), System.nanoTime()),
+            "Cola de movimientos de stock saturada");
+    }
+    
+    private void run() {
+        List<PendingMovement> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingMovement first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                // La ventana empieza con la primera petición: si llega sola espera
+                // como mucho el intervalo configurado
+                long deadline = first.encolado + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long espera = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || espera <= 0) {
+                        break;
+                    }
+                    PendingMovement next = queue.poll(espera, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        
+        StockBatches.failPending(queue, "El diario de movimientos se está deteniendo");
+    }
+    
+    private void flush(List<PendingMovement> batch) {
+        (batch.size() >= batchSize ? flushesLleno : flushesIntervalo).increment();
+        batchFill.record(batch.size());
+        
+        if (StockBatches.apply(batch, this::commit)) {
+            reintentos.increment();
+        }
+    }
+    
+    private void commit(List<PendingMovement> batch) {
+        long inicio = System.nanoTime();
+        List<StockBatchResultDTO> results;
+        try {
+            results = productService.updateStockBatch(batch.stream()
+                .map(PendingMovement::request)
+                .collect(Collectors.toList()));
+        } finally {
+            commitTime.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+        
+        // updateStockBatch ya hizo commit: los movimientos son durables
+        long ahora = System.nanoTime();
+        for (int i = 0; i < batch.size(); i++) {
+            PendingMovement pending = batch.get(i);
+            waitTime.record(ahora - pending.encolado, TimeUnit.NANOSECONDS);
+            pending.future.complete(results.get(i));
+        }
+    }
+    
+    private record PendingMovement(StockMovementRequestDTO request, CompletableFuture<StockBatchResultDTO> future,
+                                   long encolado) implements StockBatches.Pending {
+    }
+}
@@ -0,0 +1,60 @@
+package com.inventory.service;
+
+import com.inventory.dto.StockMovementDTO;
+import com.inventory.entity.StockMovement;
+import com.inventory.entity.StockMovementArchive;
+import com.inventory.event.ProductSnapshot;
+
+/**
+ * Conversión de movimientos, activos o archivados, al DTO de la API. Todas las
+ * respuestas que devuelven movimientos pasan por aquí para que el JSON sea el
+ * mismo en todos los endpoints.
+ */
+public final class StockMovementMapper {
+    
+    private StockMovementMapper() {
+    }
+    
+    public static StockMovementDTO toDTO(StockMovement movement) {
+        return new StockMovementDTO(
+            movement.getId(),
+            movement.getProducto().getId(),
+            movement.getProducto().getNombre(),
+            movement.getTipo().name(),
+            movement.getCantidad(),
+            movement.getStockAnterior(),
+            movement.getStockNuevo(),
+            movement.getMotivo(),
+            movement.getFechaMovimiento()
+        );
+    }
+    
+    // Con el producto ya leído: evita cargar la relación perezosa del movimiento
+    public static StockMovementDTO toDTO(StockMovement movement, ProductSnapshot producto) {
+        return new StockMovementDTO(
+            movement.getId(),
+            producto.getId(),
+            producto.getNombre(),
+            movement.getTipo().name(),
+            movement.getCantidad(),
+            movement.getStockAnterior(),
+            movement.getStockNuevo(),
+            movement.getMotivo(),
+            movement.getFechaMovimiento()
+        );
+    }
+    
+    public static StockMovementDTO toDTO(StockMovementArchive movement) {
+        return new StockMovementDTO(
+            movement.getId(),
+            movement.getProducto().getId(),
+            movement.getProducto().getNombre(),
+            movement.getTipo().name(),
+            movement.getCantidad(),
+            movement.getStockAnterior(),
+            movement.getStockNuevo(),
+            movement.getMotivo(),
+            movement.getFechaMovimiento()
+        );
+    }
+}
@@ -0,0 +1,129 @@
+package com.inventory.service;
+
+import com.inventory.entity.StockMovement.TipoMovimiento;
+import com.inventory.repository.StockMovementRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reconstruye los agregados a partir de los movimientos ya registrados, un día
+ * por transacción. Solo procesa días completos anteriores al actual: los
+ * movimientos de hoy los mantiene {@link StockRollupWriter} y borrar sus
+ * agregados mientras se escriben daría totales incompletos.
+ *
+ * Los movimientos se leen tanto de {@code stock_movements} como del archivo,
+ * para que reconstruir un día ya archivado no deje sus agregados vacíos.
+ */
+@Slf4j
+@Component
+public class StockRollupBackfill {
+    
+    private static final String COLUMNAS =
+        "SELECT id, producto_id, tipo, cantidad, stock_anterior, stock_nuevo, fecha_movimiento ";
+    
+    // Cada movimiento está en una sola de las dos tablas: el archivado lo mueve en una transacción
+    private static final String SELECT_DIA =
+        COLUMNAS + "FROM stock_movements WHERE fecha_movimiento >= ? AND fecha_movimiento < ? " +
+        "UNION ALL " +
+        COLUMNAS + "FROM stock_movements_archive WHERE fecha_movimiento >= ? AND fecha_movimiento < ?";
+    
+    private static final String SELECT_PRIMERO =
+        "SELECT MIN(fecha) FROM (" +
+        "SELECT MIN(fecha_movimiento) AS fecha FROM stock_movements " +
+        "UNION ALL " +
+        "SELECT MIN(fecha_movimiento) AS fecha FROM stock_movements_archive) primeros";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final StockMovementRollupRepository rollupRepository;
+    private final StockRollupWriter rollupWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    public StockRollupBackfill(
+            JdbcTemplate jdbcTemplate,
+            StockMovementRollupRepository rollupRepository,
+            StockRollupWriter rollupWriter,
+            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupRepository = rollupRepository;
+        this.rollupWriter = rollupWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    public boolean isRunning() {
+        return running.get();
+    }
+    
+    /**
+     * Lanza la reconstrucción en segundo plano. Sin {@code desde} empieza en el
+     * primer movimiento registrado, archivado o no; {@code hasta} (exclusivo)
+     * nunca pasa de hoy.
+     */
+    public void start(LocalDate desde, LocalDate hasta) {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Ya hay una reconstrucción de agregados en curso");
+        }
+        
+        Thread thread = new Thread(() -> {
+            try {
+                run(desde, hasta);
+            } catch (RuntimeException e) {
+                log.error("Error reconstruyendo agregados de movimientos", e);
+            } finally {
+                running.set(false);
+            }
+        }, "stock-rollup-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void run(LocalDate desde, LocalDate hasta) {
+        LocalDate hoy = LocalDate.now();
+        LocalDate fin = hasta == null || hasta.isAfter(hoy) ? hoy : hasta;
+        LocalDate inicio = desde != null ? desde : primerDia();
+        if (inicio == null) {
+            return;
+        }
+        
+        long tiempo = System.currentTimeMillis();
+        int dias = 0;
+        for (LocalDate dia = inicio; dia.isBefore(fin); dia = dia.plusDays(1)) {
+            LocalDate actual = dia;
+            transactionTemplate.executeWithoutResult(status -> rebuild(actual));
+            dias++;
+        }
+        log.info("Agregados de movimientos reconstruidos: {} días en {} ms", dias, System.currentTimeMillis() - tiempo);
+    }
+    
+    private void rebuild(LocalDate dia) {
+        LocalDateTime desde = dia.atStartOfDay();
+        LocalDateTime hasta = desde.plusDays(1);
+        rollupRepository.deleteByBucketRange(desde, hasta);
+        
+        StockRollupWriter.Buffer buffer = new StockRollupWriter.Buffer();
+        jdbcTemplate.query(SELECT_DIA, (RowCallbackHandler) rs -> {
+            buffer.add(
+                rs.getLong("id"),
+                rs.getLong("producto_id"),
+                TipoMovimiento.valueOf(rs.getString("tipo")),
+                rs.getInt("cantidad"),
+                rs.getInt("stock_anterior"),
+                rs.getInt("stock_nuevo"),
+                rs.getTimestamp("fecha_movimiento").toLocalDateTime());
+        }, Timestamp.valueOf(desde), Timestamp.valueOf(hasta), Timestamp.valueOf(desde), Timestamp.valueOf(hasta));
+        rollupWriter.write(buffer);
+    }
+    
+    private LocalDate primerDia() {
+        Timestamp primero = jdbcTemplate.queryForObject(SELECT_PRIMERO, Timestamp.class);
+        return primero != null ? primero.toLocalDateTime().toLocalDate() : null;
+    }
+}
@@ -0,0 +1,183 @@
+package com.inventory.service;
+
+import com.inventory.dto.StockMovementDTO;
+import com.inventory.entity.StockMovement.TipoMovimiento;
+import com.inventory.entity.StockMovementRollup.Granularidad;
+import com.inventory.event.StockChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mantiene la tabla de agregados por hora y por día. Los movimientos de una
+ * transacción se acumulan en memoria y se escriben justo antes del commit con
+ * un único lote de upserts, dentro de la misma transacción que los movimientos.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockRollupWriter {
+    
+    // (fecha, id) del movimiento nuevo posterior al guardado. Sin comparar filas
+    // (a, b) > (c, d), que H2 no admite con tipos distintos, y sin abrir paréntesis
+    // justo antes de VALUES(), que H2 lee como una tabla de valores
+    private static final String ES_POSTERIOR =
+        "(fecha_ultimo_movimiento < VALUES(fecha_ultimo_movimiento) OR " +
+        "(fecha_ultimo_movimiento = VALUES(fecha_ultimo_movimiento) AND ultimo_movimiento_id < VALUES(ultimo_movimiento_id)))";
+    
+    // Las columnas se evalúan en orden: stock_cierre y ultimo_movimiento_id se
+    // comparan contra el último movimiento guardado antes de actualizar su fecha
+    private static final String UPSERT =
+        "INSERT INTO stock_movement_rollups (producto_id, granularidad, bucket_inicio, entradas, salidas, " +
+        "ajustes, ajuste_neto, movimientos, stock_cierre, fecha_ultimo_movimiento, ultimo_movimiento_id) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE " +
+        "entradas = entradas + VALUES(entradas), " +
+        "salidas = salidas + VALUES(salidas), " +
+        "ajustes = ajustes + VALUES(ajustes), " +
+        "ajuste_neto = ajuste_neto + VALUES(ajuste_neto), " +
+        "movimientos = movimientos + VALUES(movimientos), " +
+        "stock_cierre = CASE WHEN " + ES_POSTERIOR + " THEN VALUES(stock_cierre) ELSE stock_cierre END, " +
+        "ultimo_movimiento_id = CASE WHEN " + ES_POSTERIOR + " THEN VALUES(ultimo_movimiento_id) " +
+        "ELSE ultimo_movimiento_id END, " +
+        "fecha_ultimo_movimiento = GREATEST(fecha_ultimo_movimiento, VALUES(fecha_ultimo_movimiento))";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        StockMovementDTO movimiento = event.getMovimiento();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Buffer buffer = new Buffer();
+            buffer.add(movimiento);
+            write(buffer);
+            return;
+        }
+        
+        Buffer buffer = (Buffer) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            Buffer nuevo = new Buffer();
+            TransactionSynchronizationManager.bindResource(this, nuevo);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(nuevo);
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(StockRollupWriter.this);
+                }
+            });
+            buffer = nuevo;
+        }
+        buffer.add(movimiento);
+    }
+    
+    public void write(Buffer buffer) {
+        List<Map.Entry<Key, Acumulado>> filas = new ArrayList<>(buffer.acumulados.entrySet());
+        if (filas.isEmpty()) {
+            return;
+        }
+        // Mismo orden de filas en todas las transacciones para no provocar interbloqueos
+        filas.sort(Map.Entry.comparingByKey(KEY_ORDER));
+        
+        jdbcTemplate.batchUpdate(UPSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Key key = filas.get(i).getKey();
+                Acumulado acumulado = filas.get(i).getValue();
+                ps.setLong(1, key.productoId());
+                ps.setString(2, key.granularidad().name());
+                ps.setTimestamp(3, Timestamp.valueOf(key.bucketInicio()));
+                ps.setLong(4, acumulado.entradas);
+                ps.setLong(5, acumulado.salidas);
+                ps.setLong(6, acumulado.ajustes);
+                ps.setLong(7, acumulado.ajusteNeto);
+                ps.setLong(8, acumulado.movimientos);
+                ps.setInt(9, acumulado.stockCierre);
+                ps.setTimestamp(10, Timestamp.valueOf(acumulado.fechaUltimo));
+                ps.setLong(11, acumulado.ultimoId);
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return filas.size();
+            }
+        });
+    }
+    
+    /**
+     * Movimientos agregados por producto, granularidad e intervalo, pendientes
+     * de escribir.
+     */
+    public static final class Buffer {
+        private final Map<Key, Acumulado> acumulados = new HashMap<>();
+        
+        public void add(StockMovementDTO movimiento) {
+            add(movimiento.getId(), movimiento.getProductoId(), TipoMovimiento.valueOf(movimiento.getTipo()),
+                movimiento.getCantidad(), movimiento.getStockAnterior(), movimiento.getStockNuevo(),
+                movimiento.getFechaMovimiento());
+        }
+        
+        public void add(long id, long productoId, TipoMovimiento tipo, int cantidad,
+                        int stockAnterior, int stockNuevo, LocalDateTime fecha) {
+            for (Granularidad granularidad : Granularidad.values()) {
+                Key key = new Key(productoId, granularidad, granularidad.bucket(fecha));
+                acumulados.computeIfAbsent(key, k -> new Acumulado())
+                    .add(id, tipo, cantidad, stockAnterior, stockNuevo, fecha);
+            }
+        }
+    }
+    
+    private record Key(Long productoId, Granularidad granularidad, LocalDateTime bucketInicio) {
+    }
+    
+    private static final Comparator<Key> KEY_ORDER = Comparator
+        .comparing(Key::productoId)
+        .thenComparing(Key::granularidad)
+        .thenComparing(Key::bucketInicio);
+    
+    private static final class Acumulado {
+        private long entradas;
+        private long salidas;
+        private long ajustes;
+        private long ajusteNeto;
+        private long movimientos;
+        private int stockCierre;
+        private LocalDateTime fechaUltimo;
+        private long ultimoId;
+        
+        private void add(long id, TipoMovimiento tipo, int cantidad, int stockAnterior, int stockNuevo,
+                         LocalDateTime fecha) {
+            switch (tipo) {
+                case ENTRADA -> entradas += cantidad;
+                case SALIDA -> salidas += cantidad;
+                case AJUSTE -> {
+                    ajustes++;
+                    ajusteNeto += stockNuevo - stockAnterior;
+                }
+            }
+            movimientos++;
+            
+            int orden = fechaUltimo == null ? 1 : fecha.compareTo(fechaUltimo);
+            if (orden > 0 || (orden == 0 && id > ultimoId)) {
+                stockCierre = stockNuevo;
+                fechaUltimo = fecha;
+                ultimoId = id;
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.inventory.service;
+
+import com.inventory.config.VirtualThreads;
+import com.inventory.dto.StockBatchResultDTO;
+import com.inventory.dto.StockMovementRequestDTO;
+import com.inventory.service.impl.ProductServiceImpl;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Serializa las actualizaciones de stock por producto: cada producto se asigna
+ * siempre al mismo worker, que aplica sus movimientos en orden de llegada y
+ * agrupa los pendientes en una sola transacción por lote.
+ */
+@Component
+public class StockUpdateDispatcher {
+    
+    private final ProductService productService;
+    private final boolean enabled;
+    private final int workers;
+    private final int queueCapacity;
+    private final int maxCoalesce;
+    private final boolean virtualThreads;
+    private final List<Stripe> stripes = new ArrayList<>();
+    
+    private volatile boolean running;
+    
+    public StockUpdateDispatcher(
+            ProductService productService,
+            Environment environment,
+            @Value("${inventory.stock.dispatcher.enabled:false}") boolean enabled,
+            @Value("${inventory.stock.dispatcher.workers:8}") int workers,
+            @Value("${inventory.stock.dispatcher.queue-capacity:10000}") int queueCapacity,
+            @Value("${inventory.stock.dispatcher.max-coalesce:100}") int maxCoalesce) {
+        this.productService = productService;
+        this.enabled = enabled;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        // Un lote mayor lo rechazaría updateStockBatch entero
+        this.maxCoalesce = Math.min(Math.max(maxCoalesce, 1), ProductServiceImpl.MAX_BATCH_SIZE);
+        this.virtualThreads = VirtualThreads.isActive(environment);
+    }
+    
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        // Los workers pasan casi todo el tiempo esperando a la base de datos
+        ThreadFactory virtual = virtualThreads
+            ? new VirtualThreadTaskExecutor("stock-dispatcher-").getVirtualThreadFactory()
+            : null;
+        for (int i = 0; i < workers; i++) {
+            Stripe stripe = new Stripe(new LinkedBlockingQueue<>(queueCapacity));
+            Thread thread = virtual != null
+                ? virtual.newThread(() -> drain(stripe))
+                : new Thread(() -> drain(stripe), "stock-dispatcher-" + i);
+            thread.setDaemon(true);
+            stripe.thread = thread;
+            stripes.add(stripe);
+            thread.start();
+        }
+    }
+    
+    @PreDestroy
+    void stop() {
+        running = false;
+        stripes.forEach(stripe -> stripe.thread.interrupt());
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void updateStock(Long id, Integer cantidad, String tipo, String motivo) {
+        if (!enabled) {
+            productService.updateStock(id, cantidad, tipo, motivo);
+            return;
+        }
+        
+        StockBatches.await(submit(new StockMovementRequestDTO(id, tipo, cantidad, motivo)));
+    }
+    
+    public CompletableFuture<StockBatchResultDTO> submit(StockMovementRequestDTO request) {
+        if (!running) {
+            throw new RuntimeException("El despachador de stock no está activo");
+        }
+        
+        Stripe stripe = stripes.get(Math.floorMod(Objects.hashCode(request.getProductoId()), stripes.size()));
+        return StockBatches.enqueue(stripe.queue, new PendingUpdate(request, new CompletableFuture<>()),
+            "Cola de actualizaciones de stock saturada");
+    }
+    
+    private void drain(Stripe stripe) {
+        List<PendingUpdate> batch = new ArrayList<>(maxCoalesce);
+        while (running) {
+            try {
+                PendingUpdate first = stripe.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                stripe.queue.drainTo(batch, maxCoalesce - 1);
+                StockBatches.apply(batch, this::commit);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        
+        StockBatches.failPending(stripe.queue, "El despachador de stock se está deteniendo");
+    }
+    
+    private void commit(List<PendingUpdate> batch) {
+        List<StockBatchResultDTO> results = productService.updateStockBatch(batch.stream()
+            .map(PendingUpdate::request)
+            .collect(Collectors.toList()));
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future.complete(results.get(i));
+        }
+    }
+    
+    private static final class Stripe {
+        private final BlockingQueue<PendingUpdate> queue;
+        private Thread thread;
+        
+        private Stripe(BlockingQueue<PendingUpdate> queue) {
+            this.queue = queue;
+        }
+    }
+    
+    private record PendingUpdate(StockMovementRequestDTO request, CompletableFuture<StockBatchResultDTO> future)
+            implements StockBatches.Pending {
+    }
+}
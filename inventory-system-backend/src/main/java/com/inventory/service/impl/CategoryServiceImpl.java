@@ -1,20 +1,37 @@
 package com.inventory.service.impl;
 
+import com.inventory.config.CacheConfig;
+import com.inventory.config.MetricsConfig;
 import com.inventory.dto.CategoryDTO;
+import com.inventory.dto.ModoTotal;
 import com.inventory.entity.Category;
+import com.inventory.event.CategoryChangedEvent;
 import com.inventory.repository.CategoryRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.service.PageTotals;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional
 public class CategoryServiceImpl {
     
     private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PageTotals pageTotals;
     
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
         if (categoryRepository.existsByNombreIgnoreCase(categoryDTO.getNombre())) {
@@ -26,7 +43,8 @@ public class CategoryServiceImpl {
         category.setDescripcion(categoryDTO.getDescripcion());
         
         Category savedCategory = categoryRepository.save(category);
-        return convertToDTO(savedCategory);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getId(), CategoryChangedEvent.Tipo.CREADA));
+        return convertToDTO(savedCategory, 0L);
     }
     
     public CategoryDTO updateCategory(Long id, CategoryDTO categoryDTO) {
@@ -42,40 +60,68 @@ public class CategoryServiceImpl {
         category.setDescripcion(categoryDTO.getDescripcion());
         
         Category updatedCategory = categoryRepository.save(category);
-        return convertToDTO(updatedCategory);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, CategoryChangedEvent.Tipo.ACTUALIZADA));
+        return convertToDTO(updatedCategory, productRepository.countByCategoriaId(id));
     }
     
     public void deleteCategory(Long id) {
-        Category category = categoryRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Categoría no encontrada"));
-        
-        if (!category.getProductos().isEmpty()) {
+        if (productRepository.existsByCategoriaId(id)) {
             throw new RuntimeException("No se puede eliminar una categoría con productos asociados");
         }
         
-        categoryRepository.delete(category);
+        if (categoryRepository.deleteCategoryById(id) == 0) {
+            throw new RuntimeException("Categoría no encontrada");
+        }
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, CategoryChangedEvent.Tipo.ELIMINADA));
     }
     
     @Transactional(readOnly = true)
+    @Cacheable(value = CacheConfig.CATEGORIES, key = "#id", sync = true)
     public CategoryDTO getCategoryById(Long id) {
         Category category = categoryRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Categoría no encontrada"));
-        return convertToDTO(category);
+        return convertToDTO(category, productRepository.countByCategoriaId(id));
     }
     
     @Transactional(readOnly = true)
     public Page<CategoryDTO> getAllCategories(Pageable pageable) {
-        return categoryRepository.findAll(pageable).map(this::convertToDTO);
+        Page<Category> categories = categoryRepository.findAll(pageable);
+        Map<Long, Long> totales = countProductos(categories.getContent());
+        return categories.map(category -> convertToDTO(category, totales.getOrDefault(category.getId(), 0L)));
+    }
+    
+    @Transactional(readOnly = true)
+    public Slice<CategoryDTO> getAllCategories(Pageable pageable, ModoTotal modo) {
+        if (modo == ModoTotal.EXACTO) {
+            return getAllCategories(pageable);
+        }
+        Slice<Category> slice = categoryRepository.findSliceBy(pageable);
+        Map<Long, Long> totales = countProductos(slice.getContent());
+        Slice<CategoryDTO> categories =
+            slice.map(category -> convertToDTO(category, totales.getOrDefault(category.getId(), 0L)));
+        return modo == ModoTotal.APROXIMADO
+            ? pageTotals.page(categories, PageTotals.Consulta.CATEGORIAS, null, null)
+            : categories;
+    }
+    
+    // Un único COUNT agrupado por página en lugar de cargar la colección de productos de cada categoría
+    private Map<Long, Long> countProductos(List<Category> categories) {
+        if (categories.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = categories.stream().map(Category::getId).collect(Collectors.toList());
+        return productRepository.countByCategoriaIds(ids).stream()
+            .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
     }
     
-    private CategoryDTO convertToDTO(Category category) {
+    private CategoryDTO convertToDTO(Category category, long totalProductos) {
         CategoryDTO dto = new CategoryDTO();
         dto.setId(category.getId());
         dto.setNombre(category.getNombre());
         dto.setDescripcion(category.getDescripcion());
         dto.setFechaCreacion(category.getFechaCreacion());
         dto.setFechaActualizacion(category.getFechaActualizacion());
-        dto.setTotalProductos(category.getProductos().size());
+        dto.setTotalProductos((int) totalProductos);
         return dto;
     }
 }
\ No newline at end of file
@@ -1,31 +1,25 @@
 package com.inventory.service.impl;
 
+import com.inventory.config.MetricsConfig;
 import com.inventory.dto.DashboardDTO;
-import com.inventory.repository.CategoryRepository;
-import com.inventory.repository.ProductRepository;
+import com.inventory.service.DashboardAggregates;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.math.BigDecimal;
 
 @Service
 @RequiredArgsConstructor
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional(readOnly = true)
 public class DashboardServiceImpl {
     
-    private final ProductRepository productRepository;
-    private final CategoryRepository categoryRepository;
+    private final DashboardAggregates dashboardAggregates;
     
     public DashboardDTO getDashboardMetrics() {
-        DashboardDTO dashboard = new DashboardDTO();
-        
-        dashboard.setTotalProductos(productRepository.count());
-        dashboard.setTotalCategorias(categoryRepository.count());
-        dashboard.setProductosBajoStock(productRepository.countProductsBajoStock());
-        
-        BigDecimal valorTotal = productRepository.calculateTotalInventoryValue();
-        dashboard.setValorTotalInventario(valorTotal != null ? valorTotal : BigDecimal.ZERO);
-        
-        return dashboard;
+        if (dashboardAggregates.isInitialized()) {
+            return dashboardAggregates.toDTO();
+        }
+        return dashboardAggregates.loadFromDatabase();
     }
 }
\ No newline at end of file
@@ -0,0 +1,186 @@
+package com.inventory.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.dto.FormatoArchivo;
+import com.inventory.dto.ProductDTO;
+import com.inventory.dto.StockMovementDTO;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exporta movimientos y productos recorriendo un cursor de base de datos, de
+ * modo que la memoria usada no depende del número de filas exportadas.
+ *
+ * Las consultas van por el pool de exportación (PersistenceConfig) y se leen
+ * fila a fila con JDBC: sin entidades ni contexto de persistencia que vaciar.
+ */
+@Service
+public class ExportServiceImpl {
+    
+    public static final int FETCH_SIZE = 500;
+    
+    private static final LocalDateTime DESDE_MINIMO = LocalDateTime.of(1000, 1, 1, 0, 0);
+    private static final LocalDateTime HASTA_MAXIMO = LocalDateTime.of(9999, 12, 31, 23, 59);
+    
+    private static final String MOVIMIENTOS_SQL =
+        "SELECT sm.id, sm.producto_id, p.nombre, sm.tipo, sm.cantidad, sm.stock_anterior, sm.stock_nuevo, " +
+        "sm.motivo, sm.fecha_movimiento FROM %s sm JOIN products p ON p.id = sm.producto_id " +
+        "WHERE sm.fecha_movimiento >= ? AND sm.fecha_movimiento < ? ORDER BY sm.fecha_movimiento, sm.id";
+    
+    private static final String PRODUCTOS_SQL =
+        "SELECT p.id, p.nombre, p.descripcion, p.precio, p.stock_actual, p.stock_minimo, p.categoria_id, " +
+        "c.nombre, p.fecha_creacion, p.fecha_actualizacion FROM products p " +
+        "JOIN categories c ON c.id = p.categoria_id ORDER BY p.id";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnly;
+    private final ObjectMapper objectMapper;
+    
+    public ExportServiceImpl(@Qualifier("exportDataSource") DataSource exportDataSource, ObjectMapper objectMapper) {
+        this.jdbcTemplate = new JdbcTemplate(exportDataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        // Archivo y tabla principal se leen en la misma transacción
+        this.readOnly = new TransactionTemplate(new DataSourceTransactionManager(exportDataSource));
+        this.readOnly.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+    
+    // Primero el archivo y después la tabla principal: el orden cronológico se mantiene
+    public void exportMovements(OutputStream out, FormatoArchivo formato, LocalDateTime desde, LocalDateTime hasta) {
+        LocalDateTime inicio = desde != null ? desde : DESDE_MINIMO;
+        LocalDateTime fin = hasta != null ? hasta : HASTA_MAXIMO;
+        
+        readOnly.executeWithoutResult(status -> {
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                if (formato == FormatoArchivo.CSV) {
+                    writer.write("id,productoId,productoNombre,tipo,cantidad,stockAnterior,stockNuevo,motivo,fechaMovimiento\n");
+                }
+                
+                for (String tabla : List.of("stock_movements_archive", "stock_movements")) {
+                    jdbcTemplate.query(String.format(MOVIMIENTOS_SQL, tabla),
+                        (RowCallbackHandler) rs -> writeMovement(writer, formato, toMovementDTO(rs)), inicio, fin);
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    public void exportProducts(OutputStream out, FormatoArchivo formato) {
+        readOnly.executeWithoutResult(status -> {
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                if (formato == FormatoArchivo.CSV) {
+                    writer.write("id,nombre,descripcion,precio,stockActual,stockMinimo,categoriaId,categoriaNombre," +
+                        "fechaCreacion,fechaActualizacion,bajoStock\n");
+                }
+                
+                jdbcTemplate.query(PRODUCTOS_SQL, (RowCallbackHandler) rs -> writeProduct(writer, formato, toProductDTO(rs)));
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    private void writeMovement(Writer writer, FormatoArchivo formato, StockMovementDTO dto) {
+        try {
+            if (formato == FormatoArchivo.CSV) {
+                writeCsvLine(writer, Arrays.asList(dto.getId(), dto.getProductoId(), dto.getProductoNombre(),
+                    dto.getTipo(), dto.getCantidad(), dto.getStockAnterior(), dto.getStockNuevo(),
+                    dto.getMotivo(), dto.getFechaMovimiento()));
+            } else {
+                writer.write(objectMapper.writeValueAsString(dto));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void writeProduct(Writer writer, FormatoArchivo formato, ProductDTO dto) {
+        try {
+            if (formato == FormatoArchivo.CSV) {
+                writeCsvLine(writer, Arrays.asList(dto.getId(), dto.getNombre(), dto.getDescripcion(),
+                    dto.getPrecio(), dto.getStockActual(), dto.getStockMinimo(), dto.getCategoriaId(),
+                    dto.getCategoriaNombre(), dto.getFechaCreacion(), dto.getFechaActualizacion(),
+                    dto.getBajoStock()));
+            } else {
+                writer.write(objectMapper.writeValueAsString(dto));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void writeCsvLine(Writer writer, List<Object> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values.get(i)));
+        }
+        writer.write('\n');
+    }
+    
+    private String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+    
+    private static StockMovementDTO toMovementDTO(ResultSet rs) throws SQLException {
+        StockMovementDTO dto = new StockMovementDTO();
+        dto.setId(rs.getLong(1));
+        dto.setProductoId(rs.getLong(2));
+        dto.setProductoNombre(rs.getString(3));
+        dto.setTipo(rs.getString(4));
+        dto.setCantidad(rs.getInt(5));
+        dto.setStockAnterior(rs.getInt(6));
+        dto.setStockNuevo(rs.getInt(7));
+        dto.setMotivo(rs.getString(8));
+        dto.setFechaMovimiento(rs.getObject(9, LocalDateTime.class));
+        return dto;
+    }
+    
+    private static ProductDTO toProductDTO(ResultSet rs) throws SQLException {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(rs.getLong(1));
+        dto.setNombre(rs.getString(2));
+        dto.setDescripcion(rs.getString(3));
+        dto.setPrecio(rs.getBigDecimal(4));
+        dto.setStockActual(rs.getInt(5));
+        dto.setStockMinimo(rs.getInt(6));
+        dto.setCategoriaId(rs.getLong(7));
+        dto.setCategoriaNombre(rs.getString(8));
+        dto.setFechaCreacion(rs.getObject(9, LocalDateTime.class));
+        dto.setFechaActualizacion(rs.getObject(10, LocalDateTime.class));
+        dto.setBajoStock(dto.getStockActual() <= dto.getStockMinimo());
+        return dto;
+    }
+}
@@ -0,0 +1,334 @@
+package com.inventory.service.impl;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.inventory.dto.FormatoArchivo;
+import com.inventory.dto.ImportResultDTO;
+import com.inventory.dto.ProductDTO;
+import com.inventory.dto.StockMovementDTO;
+import com.inventory.entity.Category;
+import com.inventory.entity.Product;
+import com.inventory.entity.StockMovement;
+import com.inventory.event.ProductChangedEvent;
+import com.inventory.event.ProductSnapshot;
+import com.inventory.event.StockChangedEvent;
+import com.inventory.repository.CategoryRepository;
+import com.inventory.service.StockMovementMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva del catálogo. El archivo se lee registro a registro y los
+ * productos válidos se escriben en bloques, cada uno en su propia transacción:
+ * los productos con un lote JDBC y los movimientos de stock inicial con el
+ * batching de Hibernate. Si un bloque falla, sus filas se reintentan una a una
+ * para que solo se marquen como fallidas las que realmente lo son.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportServiceImpl {
+    
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_ERRORES = 1000;
+    private static final String INSERT_PRODUCT =
+        "INSERT INTO products (nombre, descripcion, precio, stock_actual, stock_minimo, categoria_id, " +
+        "fecha_creacion, fecha_actualizacion) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    // Cabecera obligatoria; las columnas de más se ignoran y las que faltan quedan vacías
+    private static final ObjectReader CSV_READER = new CsvMapper()
+        .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+        .enable(CsvParser.Feature.IGNORE_TRAILING_UNMAPPABLE)
+        .readerForMapOf(String.class)
+        .with(CsvSchema.emptySchema().withHeader());
+    
+    private final CategoryRepository categoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    public ImportResultDTO importProducts(InputStream in, FormatoArchivo formato) {
+        long inicio = System.currentTimeMillis();
+        Importacion importacion = new Importacion();
+        
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            if (formato == FormatoArchivo.CSV) {
+                readCsv(reader, importacion);
+            } else {
+                readNdjson(reader, importacion);
+            }
+            importacion.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        ImportResultDTO result = importacion.result;
+        result.setDuracionMs(System.currentTimeMillis() - inicio);
+        result.setFilasPorSegundo(result.getTotalFilas() * 1000.0 / Math.max(result.getDuracionMs(), 1));
+        log.info("Importación de productos: {} filas, {} importadas, {} fallidas, {} filas/s",
+            result.getTotalFilas(), result.getImportadas(), result.getFallidas(), (long) result.getFilasPorSegundo());
+        return result;
+    }
+    
+    /**
+     * Un registro CSV puede ocupar varias líneas si lleva saltos de línea entre
+     * comillas, como los que genera la exportación. La fila de los errores es el
+     * número de registro contando la cabecera como fila 1.
+     */
+    private void readCsv(BufferedReader reader, Importacion importacion) throws IOException {
+        try (MappingIterator<Map<String, String>> registros = CSV_READER.readValues(reader)) {
+            long fila = 1;
+            while (true) {
+                Map<String, String> campos;
+                try {
+                    if (!registros.hasNextValue()) {
+                        break;
+                    }
+                    fila++;
+                    campos = registros.nextValue();
+                } catch (IOException | RuntimeException e) {
+                    // Tras un error de sintaxis (comillas sin cerrar) no se puede seguir leyendo
+                    importacion.result.setTotalFilas(importacion.result.getTotalFilas() + 1);
+                    addError(importacion.result, fila, "CSV inválido: " + e.getMessage());
+                    return;
+                }
+                importacion.add(fila, () -> fromCsv(campos));
+            }
+        }
+    }
+    
+    private void readNdjson(BufferedReader reader, Importacion importacion) throws IOException {
+        long fila = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            fila++;
+            if (line.isBlank()) {
+                continue;
+            }
+            String json = line;
+            importacion.add(fila, () -> objectMapper.readValue(json, ProductDTO.class));
+        }
+    }
+    
+    private void writeChunk(List<Row> chunk, ImportResultDTO result) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            transaction.executeWithoutResult(status -> insertChunk(chunk));
+            result.setImportadas(result.getImportadas() + chunk.size());
+        } catch (RuntimeException e) {
+            if (chunk.size() == 1) {
+                addError(result, chunk.get(0).fila(), "Error al guardar: " + e.getMessage());
+                return;
+            }
+            // La transacción del bloque se deshizo entera: cada fila se reintenta sola
+            log.warn("Error escribiendo bloque de importación desde la fila {}, se reintenta fila a fila",
+                chunk.get(0).fila(), e);
+            for (Row row : chunk) {
+                writeChunk(List.of(row), result);
+            }
+        }
+    }
+    
+    private void insertChunk(List<Row> chunk) {
+        LocalDateTime ahora = LocalDateTime.now();
+        Timestamp fecha = Timestamp.valueOf(ahora);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        
+        jdbcTemplate.batchUpdate(
+            connection -> connection.prepareStatement(INSERT_PRODUCT, Statement.RETURN_GENERATED_KEYS),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ProductDTO dto = chunk.get(i).dto();
+                    ps.setString(1, dto.getNombre());
+                    ps.setString(2, dto.getDescripcion());
+                    ps.setBigDecimal(3, dto.getPrecio());
+                    ps.setInt(4, dto.getStockActual());
+                    ps.setInt(5, dto.getStockMinimo());
+                    ps.setLong(6, dto.getCategoriaId());
+                    ps.setTimestamp(7, fecha);
+                    ps.setTimestamp(8, fecha);
+                }
+                
+                @Override
+                public int getBatchSize() {
+                    return chunk.size();
+                }
+            },
+            keyHolder);
+        
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < chunk.size(); i++) {
+            ProductDTO dto = chunk.get(i).dto();
+            Long id = ((Number) keys.get(i).values().iterator().next()).longValue();
+            ProductSnapshot snapshot = new ProductSnapshot(id, dto.getNombre(), dto.getDescripcion(), dto.getPrecio(),
+                dto.getStockActual(), dto.getStockMinimo(), dto.getCategoriaId());
+            ProductSnapshot sinStock = snapshot.withStockActual(0);
+            eventPublisher.publishEvent(new ProductChangedEvent(null, sinStock));
+            
+            if (dto.getStockActual() > 0) {
+                StockMovement movement = new StockMovement();
+                movement.setProducto(entityManager.getReference(Product.class, id));
+                movement.setTipo(StockMovement.TipoMovimiento.ENTRADA);
+                movement.setCantidad(dto.getStockActual());
+                movement.setStockAnterior(0);
+                movement.setStockNuevo(dto.getStockActual());
+                movement.setMotivo("Stock inicial");
+                entityManager.persist(movement);
+                eventPublisher.publishEvent(new StockChangedEvent(
+                    sinStock, snapshot, StockMovementMapper.toDTO(movement, snapshot)));
+            }
+        }
+        
+        entityManager.flush();
+        entityManager.clear();
+    }
+    
+    private void resolveCategory(ProductDTO dto, ImportContext context) {
+        if (dto.getCategoriaId() != null) {
+            boolean existe = context.categoriasPorId.computeIfAbsent(dto.getCategoriaId(), categoryRepository::existsById);
+            if (!existe) {
+                throw new RuntimeException("Categoría no encontrada");
+            }
+            return;
+        }
+        if (dto.getCategoriaNombre() == null || dto.getCategoriaNombre().isBlank()) {
+            return;
+        }
+        
+        String nombre = dto.getCategoriaNombre().trim().toLowerCase();
+        Optional<Long> categoriaId = context.categoriasPorNombre.computeIfAbsent(nombre,
+            key -> categoryRepository.findByNombreIgnoreCase(key).map(Category::getId));
+        dto.setCategoriaId(categoriaId.orElseThrow(() -> new RuntimeException("Categoría no encontrada")));
+    }
+    
+    private void validate(ProductDTO dto) {
+        if (dto.getStockMinimo() == null) {
+            dto.setStockMinimo(5);
+        }
+        
+        Set<ConstraintViolation<ProductDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            throw new RuntimeException(violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; ")));
+        }
+    }
+    
+    private ProductDTO fromCsv(Map<String, String> registro) {
+        Map<String, String> campos = new HashMap<>();
+        registro.forEach((columna, valor) -> {
+            String value = valor != null ? valor.trim() : "";
+            campos.put(columna.trim(), value.isEmpty() ? null : value);
+        });
+        
+        ProductDTO dto = new ProductDTO();
+        try {
+            dto.setNombre(campos.get("nombre"));
+            dto.setDescripcion(campos.get("descripcion"));
+            dto.setPrecio(campos.get("precio") != null ? new BigDecimal(campos.get("precio")) : null);
+            dto.setStockActual(campos.get("stockActual") != null ? Integer.valueOf(campos.get("stockActual")) : null);
+            dto.setStockMinimo(campos.get("stockMinimo") != null ? Integer.valueOf(campos.get("stockMinimo")) : null);
+            dto.setCategoriaId(campos.get("categoriaId") != null ? Long.valueOf(campos.get("categoriaId")) : null);
+            dto.setCategoriaNombre(campos.get("categoriaNombre"));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Valor numérico inválido");
+        }
+        return dto;
+    }
+    
+    private void addError(ImportResultDTO result, long fila, String mensaje) {
+        result.setFallidas(result.getFallidas() + 1);
+        if (result.getErrores().size() < MAX_ERRORES) {
+            result.getErrores().add(new ImportResultDTO.ImportErrorDTO(fila, mensaje));
+        }
+    }
+    
+    
+    private static class ImportContext {
+        private final Map<String, Optional<Long>> categoriasPorNombre = new HashMap<>();
+        private final Map<Long, Boolean> categoriasPorId = new HashMap<>();
+    }
+    
+    private record Row(long fila, ProductDTO dto) {
+    }
+    
+    @FunctionalInterface
+    private interface Lectura {
+        ProductDTO read() throws IOException;
+    }
+    
+    /**
+     * Estado de una importación: resultado, categorías ya resueltas y el bloque
+     * de filas válidas pendiente de escribir.
+     */
+    private class Importacion {
+        private final ImportResultDTO result = new ImportResultDTO();
+        private final ImportContext context = new ImportContext();
+        private final List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        
+        void add(long fila, Lectura lectura) {
+            result.setTotalFilas(result.getTotalFilas() + 1);
+            try {
+                ProductDTO dto = lectura.read();
+                resolveCategory(dto, context);
+                validate(dto);
+                chunk.add(new Row(fila, dto));
+            } catch (IOException | RuntimeException e) {
+                addError(result, fila, e.getMessage());
+            }
+            
+            if (chunk.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+        
+        void flush() {
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+    }
+}
@@ -1,34 +1,72 @@
 package com.inventory.service.impl;
 
+import com.inventory.config.CacheConfig;
+import com.inventory.config.MetricsConfig;
+import com.inventory.dto.CategoryDTO;
+import com.inventory.dto.ModoTotal;
 import com.inventory.dto.ProductDTO;
-import com.inventory.entity.Category;
+import com.inventory.dto.StockBatchResultDTO;
+import com.inventory.dto.StockMovementDTO;
+import com.inventory.dto.StockMovementRequestDTO;
 import com.inventory.entity.Product;
 import com.inventory.entity.StockMovement;
+import com.inventory.event.ProductChangedEvent;
+import com.inventory.event.ProductSnapshot;
+import com.inventory.event.StockChangedEvent;
 import com.inventory.repository.CategoryRepository;
 import com.inventory.repository.ProductRepository;
 import com.inventory.repository.StockMovementRepository;
+import com.inventory.service.InventoryMetrics;
+import com.inventory.service.LowStockTracker;
+import com.inventory.service.PageTotals;
+import com.inventory.service.ProductSearchIndex;
 import com.inventory.service.ProductService;
+import com.inventory.service.StockMovementMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional
 public class ProductServiceImpl implements ProductService {
     
+    public static final int MAX_BATCH_SIZE = 1000;
+    
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final StockMovementRepository stockMovementRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductSearchIndex productSearchIndex;
+    private final LowStockTracker lowStockTracker;
+    private final CategoryServiceImpl categoryService;
+    private final InventoryMetrics inventoryMetrics;
+    private final PageTotals pageTotals;
+    private final Validator validator;
     
     @Override
     public ProductDTO createProduct(ProductDTO productDTO) {
-        Category category = categoryRepository.findById(productDTO.getCategoriaId())
-            .orElseThrow(() -> new RuntimeException("Categoría no encontrada"));
+        CategoryDTO category = categoryService.getCategoryById(productDTO.getCategoriaId());
         
         Product product = new Product();
         product.setNombre(productDTO.getNombre());
@@ -36,10 +74,15 @@ public class ProductServiceImpl implements ProductService {
         product.setPrecio(productDTO.getPrecio());
         product.setStockActual(productDTO.getStockActual());
         product.setStockMinimo(productDTO.getStockMinimo() != null ? productDTO.getStockMinimo() : 5);
-        product.setCategoria(category);
+        product.setCategoria(categoryRepository.getReferenceById(category.getId()));
         
         Product savedProduct = productRepository.save(product);
         
+        // El alta se publica con stock 0 y el stock inicial como un movimiento más
+        ProductSnapshot snapshot = ProductSnapshot.of(savedProduct);
+        ProductSnapshot sinStock = snapshot.withStockActual(0);
+        eventPublisher.publishEvent(new ProductChangedEvent(null, sinStock));
+        
         // Registrar movimiento inicial
         if (savedProduct.getStockActual() > 0) {
             StockMovement movement = new StockMovement();
@@ -50,27 +93,32 @@ public class ProductServiceImpl implements ProductService {
             movement.setStockNuevo(savedProduct.getStockActual());
             movement.setMotivo("Stock inicial");
             stockMovementRepository.save(movement);
+            eventPublisher.publishEvent(new StockChangedEvent(
+                sinStock, snapshot, StockMovementMapper.toDTO(movement, snapshot)));
         }
         
-        return convertToDTO(savedProduct);
+        return convertToDTO(savedProduct, category);
     }
     
     @Override
     public ProductDTO updateProduct(Long id, ProductDTO productDTO) {
-        Product product = productRepository.findById(id)
+        // Bloqueada para que el snapshot del evento lleve el stock real y no uno
+        // leído antes de un movimiento concurrente
+        Product product = productRepository.findByIdForUpdate(id)
             .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
         
-        Category category = categoryRepository.findById(productDTO.getCategoriaId())
-            .orElseThrow(() -> new RuntimeException("Categoría no encontrada"));
+        CategoryDTO category = categoryService.getCategoryById(productDTO.getCategoriaId());
         
+        ProductSnapshot anterior = ProductSnapshot.of(product);
         product.setNombre(productDTO.getNombre());
         product.setDescripcion(productDTO.getDescripcion());
         product.setPrecio(productDTO.getPrecio());
         product.setStockMinimo(productDTO.getStockMinimo());
-        product.setCategoria(category);
+        product.setCategoria(categoryRepository.getReferenceById(category.getId()));
         
         Product updatedProduct = productRepository.save(product);
-        return convertToDTO(updatedProduct);
+        eventPublisher.publishEvent(new ProductChangedEvent(anterior, ProductSnapshot.of(updatedProduct)));
+        return convertToDTO(updatedProduct, category);
     }
     
     @Override
@@ -78,63 +126,260 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
         productRepository.delete(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(ProductSnapshot.of(product), null));
     }
     
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(value = CacheConfig.PRODUCTS, key = "#id", sync = true)
     public ProductDTO getProductById(Long id) {
-        Product product = productRepository.findById(id)
+        return productRepository.findDTOById(id)
             .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
-        return convertToDTO(product);
     }
     
     @Override
     @Transactional(readOnly = true)
     public Page<ProductDTO> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable).map(this::convertToDTO);
+        return productRepository.findAllAsDTO(pageable);
     }
     
     @Override
     @Transactional(readOnly = true)
     public Page<ProductDTO> searchProducts(String search, Pageable pageable) {
+        return searchProducts(search, null, pageable);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductDTO> searchProducts(String search, Long categoriaId, Pageable pageable) {
         if (search == null || search.trim().isEmpty()) {
-            return getAllProducts(pageable);
+            return categoriaId == null ? getAllProducts(pageable) : getProductsByCategory(categoriaId, pageable);
+        }
+        
+        // Mientras el índice se construye se usa la consulta LIKE
+        if (!productSearchIndex.isReady()) {
+            return categoriaId == null
+                ? productRepository.searchProducts(search.trim(), pageable)
+                : productRepository.searchProductsByCategory(categoriaId, search.trim(), pageable);
         }
-        return productRepository.searchProducts(search.trim(), pageable).map(this::convertToDTO);
+        
+        ProductSearchIndex.SearchResult result = productSearchIndex.search(
+            search, categoriaId, pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(findAllInOrder(result.ids()), pageable, result.total());
     }
     
     @Override
     @Transactional(readOnly = true)
     public Page<ProductDTO> getProductsByCategory(Long categoriaId, Pageable pageable) {
-        return productRepository.findByCategoriaId(categoriaId, pageable).map(this::convertToDTO);
+        return productRepository.findByCategoriaId(categoriaId, pageable);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<ProductDTO> getProductsBajoStock() {
-        return productRepository.findProductsBajoStock()
-            .stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+    public Slice<ProductDTO> getAllProducts(Pageable pageable, ModoTotal modo) {
+        return switch (modo) {
+            case EXACTO -> getAllProducts(pageable);
+            case NINGUNO -> productRepository.findSliceAsDTO(pageable);
+            case APROXIMADO -> pageTotals.page(productRepository.findSliceAsDTO(pageable),
+                PageTotals.Consulta.PRODUCTOS, null, null);
+        };
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProductDTO> searchProducts(String search, Long categoriaId, Pageable pageable, ModoTotal modo) {
+        if (search == null || search.trim().isEmpty()) {
+            return categoriaId == null
+                ? getAllProducts(pageable, modo)
+                : getProductsByCategory(categoriaId, pageable, modo);
+        }
+        
+        // Con el índice en memoria el total sale de la propia búsqueda y no cuesta un COUNT
+        if (modo == ModoTotal.EXACTO || productSearchIndex.isReady()) {
+            Page<ProductDTO> page = searchProducts(search, categoriaId, pageable);
+            return modo == ModoTotal.NINGUNO ? new SliceImpl<>(page.getContent(), pageable, page.hasNext()) : page;
+        }
+        
+        String busqueda = search.trim();
+        Slice<ProductDTO> slice = categoriaId == null
+            ? productRepository.searchProductsSlice(busqueda, pageable)
+            : productRepository.searchProductsByCategorySlice(categoriaId, busqueda, pageable);
+        if (modo == ModoTotal.NINGUNO) {
+            return slice;
+        }
+        return categoriaId == null
+            ? pageTotals.page(slice, PageTotals.Consulta.BUSQUEDA, null, busqueda)
+            : pageTotals.page(slice, PageTotals.Consulta.BUSQUEDA_CATEGORIA, categoriaId, busqueda);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProductDTO> getProductsByCategory(Long categoriaId, Pageable pageable, ModoTotal modo) {
+        return switch (modo) {
+            case EXACTO -> getProductsByCategory(categoriaId, pageable);
+            case NINGUNO -> productRepository.findSliceByCategoriaId(categoriaId, pageable);
+            case APROXIMADO -> pageTotals.page(productRepository.findSliceByCategoriaId(categoriaId, pageable),
+                PageTotals.Consulta.PRODUCTOS_CATEGORIA, categoriaId, null);
+        };
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductDTO> getProductsBajoStock(Long categoriaId, Pageable pageable) {
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        
+        // Hasta que el conjunto en memoria está cargado se usa la consulta SQL
+        if (!lowStockTracker.isReady()) {
+            List<ProductDTO> products = productRepository.findProductsBajoStock().stream()
+                .filter(product -> categoriaId == null || categoriaId.equals(product.getCategoriaId()))
+                .collect(Collectors.toList());
+            List<ProductDTO> content = products.stream()
+                .skip(offset)
+                .limit(limit)
+                .collect(Collectors.toList());
+            return new PageImpl<>(content, pageable, products.size());
+        }
+        
+        LowStockTracker.PageResult result = lowStockTracker.page(categoriaId, offset, limit);
+        return new PageImpl<>(findAllInOrder(result.ids()), pageable, result.total());
     }
     
     @Override
     public void updateStock(Long id, Integer cantidad, String tipo, String motivo) {
-        Product product = productRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+        validate(new StockMovementRequestDTO(id, tipo, cantidad, motivo));
+        StockMovement.TipoMovimiento tipoMovimiento = parseTipo(tipo);
+        checkCantidad(tipoMovimiento, cantidad);
+        LocalDateTime ahora = LocalDateTime.now();
+        Integer stockAnterior;
+        Integer stockNuevo;
+        ProductSnapshot actual;
+        
+        // ENTRADA y SALIDA se aplican como un único UPDATE condicional; la fila queda
+        // bloqueada por esta transacción, así que la lectura posterior ve el valor real
+        switch (tipoMovimiento) {
+            case ENTRADA:
+                if (productRepository.incrementStock(id, cantidad, ahora) == 0) {
+                    throw new RuntimeException("Producto no encontrado");
+                }
+                actual = findSnapshot(id);
+                stockNuevo = actual.getStockActual();
+                stockAnterior = stockNuevo - cantidad;
+                break;
+            case SALIDA:
+                if (productRepository.decrementStock(id, cantidad, ahora) == 0) {
+                    if (!productRepository.existsById(id)) {
+                        throw new RuntimeException("Producto no encontrado");
+                    }
+                    throw inventoryMetrics.stockInsuficiente();
+                }
+                actual = findSnapshot(id);
+                stockNuevo = actual.getStockActual();
+                stockAnterior = stockNuevo + cantidad;
+                break;
+            case AJUSTE:
+                // El ajuste fija un valor absoluto: se necesita el stock previo bajo bloqueo
+                Product product = productRepository.findByIdForUpdate(id)
+                    .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+                stockAnterior = product.getStockActual();
+                stockNuevo = cantidad;
+                if (stockNuevo.equals(stockAnterior)) {
+                    throw new RuntimeException("El movimiento no modifica el stock");
+                }
+                productRepository.setStock(id, stockNuevo, ahora);
+                actual = ProductSnapshot.of(product).withStockActual(stockNuevo);
+                cantidad = Math.abs(stockNuevo - stockAnterior);
+                break;
+            default:
+                throw new RuntimeException("Tipo de movimiento inválido");
+        }
+        
+        StockMovement movement = new StockMovement();
+        movement.setProducto(productRepository.getReferenceById(id));
+        movement.setTipo(tipoMovimiento);
+        movement.setCantidad(cantidad);
+        movement.setStockAnterior(stockAnterior);
+        movement.setStockNuevo(stockNuevo);
+        movement.setMotivo(motivo);
+        stockMovementRepository.save(movement);
+        
+        eventPublisher.publishEvent(new StockChangedEvent(
+            actual.withStockActual(stockAnterior), actual, StockMovementMapper.toDTO(movement, actual)));
+    }
+    
+    @Override
+    public List<StockBatchResultDTO> updateStockBatch(List<StockMovementRequestDTO> requests) {
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("El lote no puede superar " + MAX_BATCH_SIZE + " movimientos");
+        }
+        
+        // Un solo SELECT ... FOR UPDATE para todos los productos, en orden de id para evitar interbloqueos
+        Set<Long> ids = requests.stream()
+            .map(StockMovementRequestDTO::getProductoId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, Product> products = ids.isEmpty()
+            ? Map.of()
+            : productRepository.findAllByIdForUpdate(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        
+        List<StockBatchResultDTO> results = new ArrayList<>(requests.size());
+        List<StockMovement> movements = new ArrayList<>();
+        
+        for (int i = 0; i < requests.size(); i++) {
+            StockMovementRequestDTO request = requests.get(i);
+            StockBatchResultDTO result = new StockBatchResultDTO();
+            result.setIndice(i);
+            result.setProductoId(request.getProductoId());
+            
+            try {
+                // Cada elemento se valida por separado: uno inválido no debe tumbar el lote al hacer flush
+                validate(request);
+                Product product = products.get(request.getProductoId());
+                if (product == null) {
+                    throw new RuntimeException("Producto no encontrado");
+                }
+                
+                StockMovement movement = buildMovement(product, request);
+                product.setStockActual(movement.getStockNuevo());
+                movements.add(movement);
+                
+                result.setExitoso(true);
+                result.setStockAnterior(movement.getStockAnterior());
+                result.setStockNuevo(movement.getStockNuevo());
+            } catch (RuntimeException e) {
+                result.setExitoso(false);
+                result.setMensaje(e.getMessage());
+            }
+            results.add(result);
+        }
+        
+        // Los productos modificados y los movimientos se escriben en lotes JDBC al hacer flush
+        stockMovementRepository.saveAll(movements);
+        
+        for (StockMovement movement : movements) {
+            ProductSnapshot actual = ProductSnapshot.of(movement.getProducto()).withStockActual(movement.getStockNuevo());
+            eventPublisher.publishEvent(new StockChangedEvent(
+                actual.withStockActual(movement.getStockAnterior()), actual, StockMovementMapper.toDTO(movement, actual)));
+        }
+        return results;
+    }
+    
+    private StockMovement buildMovement(Product product, StockMovementRequestDTO request) {
+        Integer cantidad = request.getCantidad();
+        StockMovement.TipoMovimiento tipoMovimiento = parseTipo(request.getTipo());
+        checkCantidad(tipoMovimiento, cantidad);
         
         Integer stockAnterior = product.getStockActual();
         Integer stockNuevo;
         
-        StockMovement.TipoMovimiento tipoMovimiento = StockMovement.TipoMovimiento.valueOf(tipo.toUpperCase());
-        
         switch (tipoMovimiento) {
             case ENTRADA:
                 stockNuevo = stockAnterior + cantidad;
                 break;
             case SALIDA:
                 if (stockAnterior < cantidad) {
-                    throw new RuntimeException("Stock insuficiente");
+                    throw inventoryMetrics.stockInsuficiente();
                 }
                 stockNuevo = stockAnterior - cantidad;
                 break;
@@ -146,8 +391,9 @@ public class ProductServiceImpl implements ProductService {
                 throw new RuntimeException("Tipo de movimiento inválido");
         }
         
-        product.setStockActual(stockNuevo);
-        productRepository.save(product);
+        if (cantidad < 1) {
+            throw new RuntimeException("El movimiento no modifica el stock");
+        }
         
         StockMovement movement = new StockMovement();
         movement.setProducto(product);
@@ -155,11 +401,59 @@ public class ProductServiceImpl implements ProductService {
         movement.setCantidad(cantidad);
         movement.setStockAnterior(stockAnterior);
         movement.setStockNuevo(stockNuevo);
-        movement.setMotivo(motivo);
-        stockMovementRepository.save(movement);
+        movement.setMotivo(request.getMotivo());
+        return movement;
+    }
+    
+    private void validate(StockMovementRequestDTO request) {
+        Set<ConstraintViolation<StockMovementRequestDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new RuntimeException(violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; ")));
+        }
+    }
+    
+    private static StockMovement.TipoMovimiento parseTipo(String tipo) {
+        try {
+            return StockMovement.TipoMovimiento.valueOf(tipo.toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new RuntimeException("Tipo de movimiento inválido");
+        }
     }
     
-    private ProductDTO convertToDTO(Product product) {
+    // Mismas reglas en el movimiento individual y en el lote: el movimiento
+    // guardado siempre tiene cantidad >= 1. Solo el AJUSTE admite 0 (fijar el
+    // stock a cero); su cantidad real es la diferencia y se comprueba aparte
+    private static void checkCantidad(StockMovement.TipoMovimiento tipo, Integer cantidad) {
+        if (cantidad == null || cantidad < 0) {
+            throw new RuntimeException("Cantidad inválida");
+        }
+        if (cantidad < 1 && tipo != StockMovement.TipoMovimiento.AJUSTE) {
+            throw new RuntimeException("El movimiento no modifica el stock");
+        }
+    }
+    
+    private ProductSnapshot findSnapshot(Long id) {
+        return productRepository.findSnapshotById(id)
+            .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+    }
+    
+    // Carga los DTOs respetando el orden de los ids recibidos
+    private List<ProductDTO> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ProductDTO> products = productRepository.findAllAsDTOById(ids).stream()
+            .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+        return ids.stream()
+            .map(products::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+    
+    private ProductDTO convertToDTO(Product product, CategoryDTO category) {
         ProductDTO dto = new ProductDTO();
         dto.setId(product.getId());
         dto.setNombre(product.getNombre());
@@ -167,11 +461,12 @@ public class ProductServiceImpl implements ProductService {
         dto.setPrecio(product.getPrecio());
         dto.setStockActual(product.getStockActual());
         dto.setStockMinimo(product.getStockMinimo());
-        dto.setCategoriaId(product.getCategoria().getId());
-        dto.setCategoriaNombre(product.getCategoria().getNombre());
+        dto.setCategoriaId(category.getId());
+        dto.setCategoriaNombre(category.getNombre());
         dto.setFechaCreacion(product.getFechaCreacion());
         dto.setFechaActualizacion(product.getFechaActualizacion());
         dto.setBajoStock(product.isBajoStock());
         return dto;
     }
-}
\ No newline at end of file
+
+}
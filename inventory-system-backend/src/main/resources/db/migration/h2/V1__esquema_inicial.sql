@@ -0,0 +1,38 @@
+-- Esquema para H2 (perfiles benchmark y scale-test); equivalente al de MySQL
+
+CREATE TABLE categories (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nombre VARCHAR(50) NOT NULL,
+    descripcion VARCHAR(200),
+    fecha_creacion DATETIME(6) NOT NULL,
+    fecha_actualizacion DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_categories_nombre UNIQUE (nombre)
+);
+
+CREATE TABLE products (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nombre VARCHAR(100) NOT NULL,
+    descripcion VARCHAR(500),
+    precio DECIMAL(10,2) NOT NULL,
+    stock_actual INTEGER NOT NULL,
+    stock_minimo INTEGER NOT NULL,
+    categoria_id BIGINT NOT NULL,
+    fecha_creacion DATETIME(6) NOT NULL,
+    fecha_actualizacion DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_products_categoria FOREIGN KEY (categoria_id) REFERENCES categories (id)
+);
+
+CREATE TABLE stock_movements (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    producto_id BIGINT NOT NULL,
+    tipo VARCHAR(20) NOT NULL CHECK (tipo IN ('ENTRADA','SALIDA','AJUSTE')),
+    cantidad INTEGER NOT NULL,
+    stock_anterior INTEGER NOT NULL,
+    stock_nuevo INTEGER NOT NULL,
+    motivo VARCHAR(300),
+    fecha_movimiento DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_stock_movements_producto FOREIGN KEY (producto_id) REFERENCES products (id)
+);
@@ -0,0 +1,44 @@
+-- Mismas tablas que en MySQL. La secuencia no necesita ajuste: las bases de
+-- datos H2 son nuevas y DatasetSeeder la coloca tras cargar los movimientos
+ALTER TABLE stock_movements ALTER COLUMN id DROP IDENTITY;
+
+-- Secuencia de stock_movements (allocationSize = 50)
+CREATE SEQUENCE stock_movements_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE stock_movement_rollups (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    producto_id BIGINT NOT NULL,
+    granularidad VARCHAR(10) NOT NULL CHECK (granularidad IN ('HORA','DIA')),
+    bucket_inicio DATETIME(6) NOT NULL,
+    entradas BIGINT NOT NULL,
+    salidas BIGINT NOT NULL,
+    ajustes BIGINT NOT NULL,
+    ajuste_neto BIGINT NOT NULL,
+    movimientos BIGINT NOT NULL,
+    stock_cierre INTEGER NOT NULL,
+    fecha_ultimo_movimiento DATETIME(6) NOT NULL,
+    ultimo_movimiento_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_stock_movement_rollups_producto_bucket UNIQUE (producto_id, granularidad, bucket_inicio)
+);
+
+CREATE TABLE stock_movements_archive (
+    id BIGINT NOT NULL,
+    producto_id BIGINT NOT NULL,
+    tipo VARCHAR(20) NOT NULL CHECK (tipo IN ('ENTRADA','SALIDA','AJUSTE')),
+    cantidad INTEGER NOT NULL,
+    stock_anterior INTEGER NOT NULL,
+    stock_nuevo INTEGER NOT NULL,
+    motivo VARCHAR(300),
+    fecha_movimiento DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_stock_movements_archive_producto FOREIGN KEY (producto_id) REFERENCES products (id)
+);
+
+CREATE TABLE stock_opening_balances (
+    producto_id BIGINT NOT NULL,
+    stock_apertura INTEGER NOT NULL,
+    fecha_corte DATETIME(6) NOT NULL,
+    ultimo_movimiento_id BIGINT NOT NULL,
+    PRIMARY KEY (producto_id)
+);
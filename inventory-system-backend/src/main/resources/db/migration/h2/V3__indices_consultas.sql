@@ -0,0 +1,14 @@
+-- Mismos índices que en MySQL
+CREATE INDEX idx_stock_movements_fecha_id ON stock_movements (fecha_movimiento, id);
+CREATE INDEX idx_stock_movements_producto_fecha_id ON stock_movements (producto_id, fecha_movimiento, id);
+
+CREATE INDEX idx_stock_movements_archive_fecha_id ON stock_movements_archive (fecha_movimiento, id);
+CREATE INDEX idx_stock_movements_archive_producto_fecha_id
+    ON stock_movements_archive (producto_id, fecha_movimiento, id);
+
+CREATE INDEX idx_stock_movement_rollups_bucket ON stock_movement_rollups (granularidad, bucket_inicio);
+
+CREATE INDEX idx_products_categoria ON products (categoria_id, id);
+
+ALTER TABLE products ADD COLUMN deficit INTEGER GENERATED ALWAYS AS (stock_minimo - stock_actual);
+CREATE INDEX idx_products_deficit ON products (deficit DESC, id);
@@ -0,0 +1,4 @@
+-- Solo H2: no recorre un índice al revés, así que para ORDER BY fecha_movimiento
+-- DESC necesita un índice descendente. MySQL usa idx_stock_movements_fecha_id
+-- con un recorrido inverso; este índice reproduce ese plan en las pruebas
+CREATE INDEX idx_stock_movements_fecha_id_desc ON stock_movements (fecha_movimiento DESC, id DESC);
@@ -0,0 +1,41 @@
+-- Esquema tal como lo generaba Hibernate con ddl-auto=update, antes de los
+-- movimientos archivados, los agregados y los índices. Las bases de datos
+-- existentes se marcan en esta versión (baseline) y continúan desde V2, así
+-- que aquí no puede añadirse nada nuevo.
+
+CREATE TABLE categories (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    nombre VARCHAR(50) NOT NULL,
+    descripcion VARCHAR(200),
+    fecha_creacion DATETIME(6) NOT NULL,
+    fecha_actualizacion DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_categories_nombre UNIQUE (nombre)
+) ENGINE=InnoDB;
+
+CREATE TABLE products (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    nombre VARCHAR(100) NOT NULL,
+    descripcion VARCHAR(500),
+    precio DECIMAL(10,2) NOT NULL,
+    stock_actual INTEGER NOT NULL,
+    stock_minimo INTEGER NOT NULL,
+    categoria_id BIGINT NOT NULL,
+    fecha_creacion DATETIME(6) NOT NULL,
+    fecha_actualizacion DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_products_categoria FOREIGN KEY (categoria_id) REFERENCES categories (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE stock_movements (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    producto_id BIGINT NOT NULL,
+    tipo ENUM('ENTRADA','SALIDA','AJUSTE') NOT NULL,
+    cantidad INTEGER NOT NULL,
+    stock_anterior INTEGER NOT NULL,
+    stock_nuevo INTEGER NOT NULL,
+    motivo VARCHAR(300),
+    fecha_movimiento DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_stock_movements_producto FOREIGN KEY (producto_id) REFERENCES products (id)
+) ENGINE=InnoDB;
@@ -0,0 +1,51 @@
+-- Tablas que no existían en el esquema de V1: las bases de datos marcadas en la
+-- baseline las reciben aquí igual que las nuevas
+
+-- Los ids de stock_movements pasan a asignarse por lotes desde la secuencia
+ALTER TABLE stock_movements MODIFY id BIGINT NOT NULL;
+
+-- Secuencia de stock_movements (allocationSize = 50) emulada con una tabla. Las
+-- bases de datos existentes ya tienen movimientos: se empieza por encima del mayor id
+CREATE TABLE stock_movements_seq (
+    next_val BIGINT
+) ENGINE=InnoDB;
+
+INSERT INTO stock_movements_seq SELECT COALESCE(MAX(id), 0) + 100 FROM stock_movements;
+
+CREATE TABLE stock_movement_rollups (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    producto_id BIGINT NOT NULL,
+    granularidad ENUM('HORA','DIA') NOT NULL,
+    bucket_inicio DATETIME(6) NOT NULL,
+    entradas BIGINT NOT NULL,
+    salidas BIGINT NOT NULL,
+    ajustes BIGINT NOT NULL,
+    ajuste_neto BIGINT NOT NULL,
+    movimientos BIGINT NOT NULL,
+    stock_cierre INTEGER NOT NULL,
+    fecha_ultimo_movimiento DATETIME(6) NOT NULL,
+    ultimo_movimiento_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_stock_movement_rollups_producto_bucket UNIQUE (producto_id, granularidad, bucket_inicio)
+) ENGINE=InnoDB;
+
+CREATE TABLE stock_movements_archive (
+    id BIGINT NOT NULL,
+    producto_id BIGINT NOT NULL,
+    tipo ENUM('ENTRADA','SALIDA','AJUSTE') NOT NULL,
+    cantidad INTEGER NOT NULL,
+    stock_anterior INTEGER NOT NULL,
+    stock_nuevo INTEGER NOT NULL,
+    motivo VARCHAR(300),
+    fecha_movimiento DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_stock_movements_archive_producto FOREIGN KEY (producto_id) REFERENCES products (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE stock_opening_balances (
+    producto_id BIGINT NOT NULL,
+    stock_apertura INTEGER NOT NULL,
+    fecha_corte DATETIME(6) NOT NULL,
+    ultimo_movimiento_id BIGINT NOT NULL,
+    PRIMARY KEY (producto_id)
+) ENGINE=InnoDB;
@@ -0,0 +1,18 @@
+-- Movimientos por fecha y por producto; el id desempata y sirve de cursor
+CREATE INDEX idx_stock_movements_fecha_id ON stock_movements (fecha_movimiento, id);
+CREATE INDEX idx_stock_movements_producto_fecha_id ON stock_movements (producto_id, fecha_movimiento, id);
+
+CREATE INDEX idx_stock_movements_archive_fecha_id ON stock_movements_archive (fecha_movimiento, id);
+CREATE INDEX idx_stock_movements_archive_producto_fecha_id
+    ON stock_movements_archive (producto_id, fecha_movimiento, id);
+
+CREATE INDEX idx_stock_movement_rollups_bucket ON stock_movement_rollups (granularidad, bucket_inicio);
+
+-- Productos por categoría (listados, conteos y búsqueda filtrada)
+CREATE INDEX idx_products_categoria ON products (categoria_id, id);
+
+-- stock_actual <= stock_minimo compara dos columnas y no puede usar un índice:
+-- se materializa el déficit como columna generada y se indexa en el orden
+-- en que se listan los productos con bajo stock
+ALTER TABLE products ADD COLUMN deficit INTEGER AS (stock_minimo - stock_actual) VIRTUAL;
+CREATE INDEX idx_products_deficit ON products (deficit DESC, id);
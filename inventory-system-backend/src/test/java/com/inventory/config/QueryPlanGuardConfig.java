@@ -0,0 +1,26 @@
+package com.inventory.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import javax.sql.DataSource;
+
+/**
+ * Para las pruebas de planes de consulta y de número de sentencias: el
+ * DataSource se envuelve en StatementCapture para poder recoger el SQL que
+ * genera cada repositorio.
+ */
+@TestConfiguration
+public class QueryPlanGuardConfig {
+    
+    // Estático: los BeanPostProcessor se crean antes que el resto de la configuración
+    @Bean
+    public static BeanPostProcessor statementCapturePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? StatementCapture.wrap(dataSource) : bean;
+            }
+        };
+    }
+}
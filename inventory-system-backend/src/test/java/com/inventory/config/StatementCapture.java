@@ -0,0 +1,99 @@
+package com.inventory.config;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Proxy JDBC que anota el SQL y los parámetros de cada sentencia preparada
+ * ejecutada mientras hay una captura activa en el hilo. Fuera de una captura
+ * solo delega; lo instala {@link QueryPlanGuardConfig} en las pruebas de planes
+ * y en las que cuentan sentencias.
+ */
+public final class StatementCapture {
+    
+    private static final ThreadLocal<List<Sentencia>> ACTIVA = new ThreadLocal<>();
+    
+    public record Sentencia(String sql, List<Object> parametros) {
+    }
+    
+    private StatementCapture() {
+    }
+    
+    // Ejecuta la acción y devuelve las sentencias que lanzó en este hilo
+    public static List<Sentencia> capture(Runnable accion) {
+        List<Sentencia> sentencias = new ArrayList<>();
+        ACTIVA.set(sentencias);
+        try {
+            accion.run();
+        } finally {
+            ACTIVA.remove();
+        }
+        return sentencias;
+    }
+    
+    public static DataSource wrap(DataSource dataSource) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object resultado = invoke(dataSource, method, args);
+            return resultado instanceof Connection connection ? wrap(connection) : resultado;
+        };
+        // Se mantiene close() para que el contexto siga cerrando el pool al parar
+        Class<?>[] tipos = dataSource instanceof AutoCloseable
+            ? new Class<?>[] {DataSource.class, AutoCloseable.class}
+            : new Class<?>[] {DataSource.class};
+        return (DataSource) Proxy.newProxyInstance(StatementCapture.class.getClassLoader(), tipos, handler);
+    }
+    
+    private static Connection wrap(Connection connection) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object resultado = invoke(connection, method, args);
+            if (resultado instanceof PreparedStatement statement && method.getName().startsWith("prepare")) {
+                return wrap(statement, (String) args[0]);
+            }
+            return resultado;
+        });
+    }
+    
+    private static PreparedStatement wrap(PreparedStatement statement, String sql) {
+        Map<Integer, Object> parametros = new TreeMap<>();
+        return proxy(PreparedStatement.class, (proxy, method, args) -> {
+            String nombre = method.getName();
+            int aridad = args == null ? 0 : args.length;
+            if (nombre.startsWith("set") && aridad >= 2 && args[0] instanceof Integer indice) {
+                parametros.put(indice, "setNull".equals(nombre) ? null : args[1]);
+            } else if ("clearParameters".equals(nombre)) {
+                parametros.clear();
+            } else if (nombre.startsWith("execute") && aridad == 0) {
+                // Se anota antes de ejecutar para no perder las sentencias que fallan
+                List<Sentencia> sentencias = ACTIVA.get();
+                if (sentencias != null) {
+                    List<Object> valores = Collections.unmodifiableList(new ArrayList<>(parametros.values()));
+                    sentencias.add(new Sentencia(sql, valores));
+                }
+            }
+            return invoke(statement, method, args);
+        });
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> tipo, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(StatementCapture.class.getClassLoader(), new Class<?>[] {tipo}, handler);
+    }
+    
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
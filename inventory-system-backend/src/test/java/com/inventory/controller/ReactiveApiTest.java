@@ -0,0 +1,212 @@
+package com.inventory.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.config.ReactiveApiServer;
+import com.inventory.service.DatasetSeeder;
+import com.inventory.service.StockMovementArchiver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * La API reactiva frente a la MVC sobre los mismos datos: mismas filas, en el
+ * mismo orden y con el mismo JSON, recorriendo cada una con su paginación.
+ *
+ * Usa su propia base de datos con datos generados, con más filas que un bloque
+ * de ReactiveInventoryRepository y parte del historial ya archivado.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:reactiva;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.url=r2dbc:h2:mem:///reactiva?options=MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "inventory.reactive.enabled=true",
+    "inventory.reactive.port=0"
+})
+@ActiveProfiles("test")
+class ReactiveApiTest {
+    
+    private static final int PRODUCTOS = 1200;
+    private static final int MOVIMIENTOS = 3000;
+    
+    @LocalServerPort
+    private int mvcPort;
+    
+    @Autowired
+    private ReactiveApiServer reactiveApiServer;
+    
+    @Autowired
+    private DatasetSeeder datasetSeeder;
+    
+    @Autowired
+    private StockMovementArchiver archiver;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private WebTestClient mvc;
+    private WebTestClient reactiva;
+    
+    @BeforeEach
+    void setUp() {
+        if (datasetSeeder.isEmpty()) {
+            // Dos años de historial: lo anterior a doce meses pasa al archivo
+            datasetSeeder.seed(new DatasetSeeder.Spec(5, PRODUCTOS, MOVIMIENTOS, 730, 1.0, 7));
+            assertThat(archiver.archive()).isPositive();
+        }
+        mvc = client(mvcPort);
+        reactiva = client(reactiveApiServer.getPort());
+    }
+    
+    @Test
+    void productosPorPaginasCoincidenConMvc() {
+        List<JsonNode> esperados = new ArrayList<>();
+        for (int page = 0; esperados.size() < PRODUCTOS; page++) {
+            JsonNode content = json(mvc, "/api/products?page=" + page + "&size=100&sortBy=id&sortDir=ASC")
+                .get("content");
+            assertThat(content).isNotEmpty();
+            content.forEach(esperados::add);
+        }
+        
+        // Páginas de 300 por afterId: cruzan los bloques de 500 del repositorio
+        List<JsonNode> productos = new ArrayList<>();
+        List<JsonNode> pagina;
+        long afterId = 0;
+        do {
+            pagina = ndjson(reactiva, "/api/products?afterId=" + afterId + "&limit=300");
+            assertThat(pagina.size()).isLessThanOrEqualTo(300);
+            productos.addAll(pagina);
+            if (!pagina.isEmpty()) {
+                afterId = pagina.get(pagina.size() - 1).get("id").asLong();
+            }
+        } while (!pagina.isEmpty());
+        
+        assertThat(productos).containsExactlyElementsOf(esperados);
+        assertThat(ndjson(reactiva, "/api/products")).containsExactlyElementsOf(esperados);
+        
+        long categoriaId = esperados.get(0).get("categoriaId").asLong();
+        assertThat(ndjson(reactiva, "/api/products?categoriaId=" + categoriaId))
+            .containsExactlyElementsOf(esperados.stream()
+                .filter(producto -> producto.get("categoriaId").asLong() == categoriaId)
+                .toList());
+    }
+    
+    @Test
+    void historialDeMovimientosCoincideConElCursorDeMvc() {
+        long archivados = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_movements_archive", Long.class);
+        assertThat(archivados).isPositive();
+        
+        List<JsonNode> esperados = cursor("/api/stock-movements/cursor");
+        assertThat(esperados).hasSize(MOVIMIENTOS);
+        assertThat(ndjson(reactiva, "/api/stock-movements")).containsExactlyElementsOf(esperados);
+        assertThat(ndjson(reactiva, "/api/stock-movements?limit=700"))
+            .containsExactlyElementsOf(esperados.subList(0, 700));
+        
+        // El producto con más movimientos tiene historial en las dos tablas
+        long productoId = jdbcTemplate.queryForObject(
+            "SELECT producto_id FROM stock_movements_archive GROUP BY producto_id ORDER BY COUNT(*) DESC LIMIT 1",
+            Long.class);
+        List<JsonNode> delProducto = cursor("/api/stock-movements/product/" + productoId + "/cursor");
+        assertThat(delProducto).hasSizeGreaterThan(1);
+        assertThat(ndjson(reactiva, "/api/stock-movements/product/" + productoId))
+            .containsExactlyElementsOf(delProducto);
+        assertThat(ndjson(reactiva, "/api/stock-movements/product/" + productoId + "?limit=1"))
+            .containsExactly(delProducto.get(0));
+    }
+    
+    @Test
+    void lecturasPorIdDevuelvenElMismoJsonQueMvc() {
+        Long productoId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM products", Long.class);
+        assertThat(json(reactiva, "/api/products/" + productoId)).isEqualTo(json(mvc, "/api/products/" + productoId));
+        
+        for (String tabla : List.of("stock_movements", "stock_movements_archive")) {
+            Long movimientoId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM " + tabla, Long.class);
+            assertThat(json(reactiva, "/api/stock-movements/" + movimientoId))
+                .isEqualTo(json(mvc, "/api/stock-movements/" + movimientoId));
+        }
+        
+        for (String uri : List.of("/api/products/0", "/api/stock-movements/0")) {
+            JsonNode error = error(reactiva, uri);
+            JsonNode esperado = error(mvc, uri);
+            assertThat(error.get("status")).isEqualTo(esperado.get("status"));
+            assertThat(error.get("message")).isEqualTo(esperado.get("message"));
+        }
+    }
+    
+    // Recorre todas las páginas de un endpoint de cursor de MVC
+    private List<JsonNode> cursor(String uri) {
+        List<JsonNode> movimientos = new ArrayList<>();
+        String after = "";
+        do {
+            JsonNode pagina = json(mvc, uri + "?size=200&after=" + after);
+            pagina.get("content").forEach(movimientos::add);
+            after = pagina.path("nextCursor").asText(null);
+        } while (after != null);
+        return movimientos;
+    }
+    
+    private JsonNode json(WebTestClient client, String uri) {
+        return read(client.get().uri(uri)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody());
+    }
+    
+    private JsonNode error(WebTestClient client, String uri) {
+        return read(client.get().uri(uri)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody());
+    }
+    
+    private List<JsonNode> ndjson(WebTestClient client, String uri) {
+        String body = client.get().uri(uri)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+        if (body == null) {
+            return List.of();
+        }
+        return body.lines()
+            .filter(linea -> !linea.isBlank())
+            .map(this::read)
+            .toList();
+    }
+    
+    private JsonNode read(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new AssertionError("Respuesta no es JSON: " + json, e);
+        }
+    }
+    
+    private static WebTestClient client(int port) {
+        return WebTestClient.bindToServer()
+            .baseUrl("http://localhost:" + port)
+            .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+            .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.inventory.service;
+
+import com.inventory.config.CacheConfig;
+import com.inventory.event.CategoryChangedEvent;
+import com.inventory.event.ProductChangedEvent;
+import com.inventory.event.ProductSnapshot;
+import com.inventory.event.StockChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.scheduling.TaskScheduler;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class CacheInvalidatorTest {
+    
+    private final ConcurrentMapCacheManager cacheManager =
+        new ConcurrentMapCacheManager(CacheConfig.PRODUCTS, CacheConfig.CATEGORIES);
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+    private final CacheInvalidator invalidator = new CacheInvalidator(cacheManager, taskScheduler, 1000);
+    
+    private final Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+    private final Cache categories = cacheManager.getCache(CacheConfig.CATEGORIES);
+    
+    @Test
+    void unaLecturaTardiaNoDejaElDatoAntiguoEnCache() {
+        products.put(1L, "antiguo");
+        
+        invalidator.onStockChanged(new StockChangedEvent(snapshot(1L, 10L), snapshot(1L, 10L), null));
+        assertThat(products.get(1L)).isNull();
+        
+        // Un lector que leyó la fila antes del commit la guarda tras la primera invalidación
+        products.put(1L, "antiguo");
+        segundasInvalidaciones();
+        
+        assertThat(products.get(1L)).isNull();
+    }
+    
+    @Test
+    void moverUnProductoInvalidaLasCategoriasDeOrigenYDestino() {
+        categories.put(10L, "origen");
+        categories.put(20L, "destino");
+        categories.put(30L, "otra");
+        
+        invalidator.onProductChanged(new ProductChangedEvent(snapshot(1L, 10L), snapshot(1L, 20L)));
+        
+        assertThat(categories.get(10L)).isNull();
+        assertThat(categories.get(20L)).isNull();
+        assertThat(categories.get(30L)).isNotNull();
+    }
+    
+    @Test
+    void renombrarUnaCategoriaVaciaLaCacheDeProductos() {
+        products.put(1L, "producto 1");
+        products.put(2L, "producto 2");
+        
+        invalidator.onCategoryChanged(new CategoryChangedEvent(10L, CategoryChangedEvent.Tipo.ACTUALIZADA));
+        assertThat(products.get(1L)).isNull();
+        
+        products.put(2L, "producto 2");
+        segundasInvalidaciones();
+        
+        assertThat(products.get(2L)).isNull();
+    }
+    
+    private void segundasInvalidaciones() {
+        ArgumentCaptor<Runnable> tareas = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler, atLeastOnce()).schedule(tareas.capture(), any(Instant.class));
+        tareas.getAllValues().forEach(Runnable::run);
+    }
+    
+    private static ProductSnapshot snapshot(Long id, Long categoriaId) {
+        return new ProductSnapshot(id, "Producto " + id, null, BigDecimal.ONE, 10, 5, categoriaId);
+    }
+}
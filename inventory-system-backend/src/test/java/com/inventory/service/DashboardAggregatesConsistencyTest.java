@@ -0,0 +1,132 @@
+package com.inventory.service;
+
+import com.inventory.dto.CategoryDTO;
+import com.inventory.dto.DashboardDTO;
+import com.inventory.dto.ProductDTO;
+import com.inventory.service.impl.CategoryServiceImpl;
+import com.inventory.service.impl.DashboardServiceImpl;
+import com.inventory.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carga mixta y aleatoria contra H2 con reconciliaciones en paralelo: al
+ * terminar, las métricas en memoria deben coincidir con los agregados SQL.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DashboardAggregatesConsistencyTest {
+    
+    private static final int ESCRITORES = 4;
+    private static final int OPERACIONES = 80;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CategoryServiceImpl categoryService;
+    
+    @Autowired
+    private DashboardServiceImpl dashboardService;
+    
+    @Autowired
+    private DashboardAggregates dashboardAggregates;
+    
+    @Test
+    void metricasCoincidenConLaBaseDeDatosTrasCargaMixta() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(ESCRITORES + 1);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicBoolean terminado = new AtomicBoolean();
+        List<Future<?>> escritores = new ArrayList<>();
+        try {
+            for (int i = 0; i < ESCRITORES; i++) {
+                Random random = new Random(42 + i);
+                escritores.add(executor.submit(() -> {
+                    salida.await();
+                    write(random);
+                    return null;
+                }));
+            }
+            Future<?> reconciliador = executor.submit(() -> {
+                salida.await();
+                while (!terminado.get()) {
+                    dashboardAggregates.reconcile();
+                }
+                return null;
+            });
+            
+            salida.countDown();
+            for (Future<?> escritor : escritores) {
+                escritor.get(2, TimeUnit.MINUTES);
+            }
+            terminado.set(true);
+            reconciliador.get(1, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        DashboardDTO sql = dashboardAggregates.loadFromDatabase();
+        assertThat(dashboardService.getDashboardMetrics())
+            .usingRecursiveComparison()
+            .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+            .isEqualTo(sql);
+    }
+    
+    private void write(Random random) {
+        List<CategoryDTO> categorias = new ArrayList<>(List.of(TestData.categoria(categoryService)));
+        List<ProductDTO> productos = new ArrayList<>();
+        for (int i = 0; i < OPERACIONES; i++) {
+            int operacion = productos.isEmpty() ? 0 : random.nextInt(10);
+            switch (operacion) {
+                case 0, 1 -> {
+                    CategoryDTO categoria = categorias.get(random.nextInt(categorias.size()));
+                    productos.add(TestData.producto(productService, categoria.getId(),
+                        "Dashboard " + Thread.currentThread().getId() + "-" + i, random.nextInt(20)));
+                }
+                case 2, 3 -> {
+                    ProductDTO producto = productos.get(random.nextInt(productos.size()));
+                    ProductDTO cambios = TestData.copia(producto);
+                    cambios.setPrecio(BigDecimal.valueOf(1 + random.nextInt(5000), 2));
+                    cambios.setStockMinimo(random.nextInt(15));
+                    cambios.setCategoriaId(categorias.get(random.nextInt(categorias.size())).getId());
+                    productos.set(productos.indexOf(producto), productService.updateProduct(producto.getId(), cambios));
+                }
+                case 4, 5, 6 -> {
+                    ProductDTO producto = productos.get(random.nextInt(productos.size()));
+                    String tipo = random.nextBoolean() ? "ENTRADA" : "SALIDA";
+                    try {
+                        productService.updateStock(producto.getId(), 1 + random.nextInt(8), tipo, "Carga mixta");
+                    } catch (RuntimeException e) {
+                        // Salida sin stock suficiente: la transacción se deshace sin evento
+                    }
+                }
+                case 7 -> {
+                    // Solo se borran productos sin movimientos: alta sin stock y baja
+                    CategoryDTO categoria = categorias.get(random.nextInt(categorias.size()));
+                    ProductDTO efimero = TestData.producto(productService, categoria.getId(),
+                        "Dashboard baja " + Thread.currentThread().getId() + "-" + i, 0);
+                    productService.deleteProduct(efimero.getId());
+                }
+                case 8 -> categorias.add(TestData.categoria(categoryService));
+                default -> {
+                    CategoryDTO vacia = TestData.categoria(categoryService);
+                    categoryService.deleteCategory(vacia.getId());
+                }
+            }
+        }
+    }
+}
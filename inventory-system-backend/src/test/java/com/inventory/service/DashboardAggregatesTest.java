@@ -0,0 +1,88 @@
+package com.inventory.service;
+
+import com.inventory.dto.DashboardDTO;
+import com.inventory.event.CategoryChangedEvent;
+import com.inventory.event.ProductChangedEvent;
+import com.inventory.event.ProductSnapshot;
+import com.inventory.event.StockChangedEvent;
+import com.inventory.repository.CategoryRepository;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DashboardAggregatesTest {
+    
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final DashboardAggregates aggregates = new DashboardAggregates(productRepository, categoryRepository);
+    
+    @Test
+    void aplicaLosEventosSobreLaUltimaReconciliacion() {
+        baseDeDatos(0, 1, 0, "0");
+        aggregates.reconcile();
+        
+        ProductSnapshot alta = snapshot(1L, 0, 5);
+        aggregates.onProductChanged(new ProductChangedEvent(null, alta));
+        aggregates.onStockChanged(new StockChangedEvent(alta, snapshot(1L, 10, 5), null));
+        aggregates.onCategoryChanged(new CategoryChangedEvent(2L, CategoryChangedEvent.Tipo.CREADA));
+        
+        assertThat(aggregates.toDTO()).isEqualTo(new DashboardDTO(1L, 2L, 0L, new BigDecimal("20.00")));
+    }
+    
+    @Test
+    void reconciliacionSeRepiteSiLlegaUnEventoDuranteLaLectura() {
+        ProductSnapshot anterior = snapshot(1L, 10, 5);
+        ProductSnapshot actual = snapshot(1L, 3, 5);
+        
+        // La primera lectura no ve el movimiento; el evento se aplica mientras se lee
+        when(productRepository.count()).thenAnswer(invocation -> {
+            aggregates.onStockChanged(new StockChangedEvent(anterior, actual, null));
+            return 1L;
+        }).thenReturn(1L);
+        when(categoryRepository.count()).thenReturn(1L);
+        when(productRepository.countProductsBajoStock()).thenReturn(0L, 1L);
+        when(productRepository.calculateTotalInventoryValue())
+            .thenReturn(new BigDecimal("20.00"), new BigDecimal("6.00"));
+        
+        aggregates.reconcile();
+        
+        // Sin el reintento quedaría la primera lectura y el movimiento se perdería
+        assertThat(aggregates.toDTO()).isEqualTo(new DashboardDTO(1L, 1L, 1L, new BigDecimal("6.00")));
+        verify(productRepository, times(2)).calculateTotalInventoryValue();
+    }
+    
+    @Test
+    void reconciliacionNoGuardaUnaLecturaConEventosPendientes() {
+        ProductSnapshot anterior = snapshot(1L, 10, 5);
+        ProductSnapshot actual = snapshot(1L, 3, 5);
+        StockChangedEvent movimiento = new StockChangedEvent(anterior, actual, null);
+        baseDeDatos(1, 1, 0, "20.00");
+        aggregates.reconcile();
+        
+        // Confirmado en la base de datos, pero su evento aún no se ha aplicado
+        aggregates.beforeCommit(movimiento);
+        baseDeDatos(1, 1, 1, "6.00");
+        aggregates.reconcile();
+        aggregates.onStockChanged(movimiento);
+        
+        // Guardar esa lectura y aplicar después el evento contaría el movimiento dos veces
+        assertThat(aggregates.toDTO()).isEqualTo(new DashboardDTO(1L, 1L, 1L, new BigDecimal("6.00")));
+    }
+    
+    private void baseDeDatos(long productos, long categorias, long bajoStock, String valor) {
+        when(productRepository.count()).thenReturn(productos);
+        when(categoryRepository.count()).thenReturn(categorias);
+        when(productRepository.countProductsBajoStock()).thenReturn(bajoStock);
+        when(productRepository.calculateTotalInventoryValue()).thenReturn(new BigDecimal(valor));
+    }
+    
+    private static ProductSnapshot snapshot(Long id, int stock, int minimo) {
+        return new ProductSnapshot(id, "Producto", "Descripción", new BigDecimal("2.00"), stock, minimo, 1L);
+    }
+}
@@ -0,0 +1,73 @@
+package com.inventory.service;
+
+import com.inventory.event.ProductChangedEvent;
+import com.inventory.event.ProductSnapshot;
+import com.inventory.event.StockChangedEvent;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LowStockTrackerTest {
+    
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final LowStockTracker tracker = new LowStockTracker(productRepository);
+    
+    @Test
+    void ordenaPorDeficitYFiltraPorCategoria() {
+        when(productRepository.findBajoStockSnapshots()).thenReturn(List.of(
+            snapshot(1L, 4, 5, 1L),
+            snapshot(2L, 0, 5, 2L),
+            snapshot(3L, 2, 5, 1L)));
+        tracker.rebuild();
+        
+        assertThat(tracker.isReady()).isTrue();
+        assertThat(tracker.page(null, 0, 10)).isEqualTo(new LowStockTracker.PageResult(List.of(2L, 3L, 1L), 3));
+        assertThat(tracker.page(1L, 1, 10)).isEqualTo(new LowStockTracker.PageResult(List.of(1L), 2));
+    }
+    
+    @Test
+    void losEventosMuevenProductosDentroYFueraDelConjunto() {
+        when(productRepository.findBajoStockSnapshots()).thenReturn(List.of(snapshot(1L, 4, 5, 1L)));
+        tracker.rebuild();
+        
+        tracker.onStockChanged(new StockChangedEvent(snapshot(1L, 4, 5, 1L), snapshot(1L, 9, 5, 1L), null));
+        tracker.onProductChanged(new ProductChangedEvent(null, snapshot(2L, 1, 5, 1L)));
+        tracker.onStockChanged(new StockChangedEvent(snapshot(3L, 9, 5, 1L), snapshot(3L, 5, 5, 1L), null));
+        
+        assertThat(tracker.page(null, 0, 10).ids()).containsExactly(2L, 3L);
+        
+        tracker.onProductChanged(new ProductChangedEvent(snapshot(2L, 1, 5, 1L), null));
+        
+        assertThat(tracker.page(null, 0, 10).ids()).containsExactly(3L);
+        assertThat(tracker.count()).isEqualTo(1);
+    }
+    
+    @Test
+    void laRecargaSeRepiteSiLlegaUnEventoDuranteLaLectura() {
+        ProductSnapshot anterior = snapshot(1L, 10, 5, 1L);
+        ProductSnapshot actual = snapshot(1L, 3, 5, 1L);
+        
+        // La primera lectura no ve el movimiento; el evento se aplica mientras se lee
+        when(productRepository.findBajoStockSnapshots()).thenAnswer(invocation -> {
+            tracker.onStockChanged(new StockChangedEvent(anterior, actual, null));
+            return List.of();
+        }).thenReturn(List.of(actual));
+        
+        tracker.rebuild();
+        
+        // Sin el reintento la primera lectura borraría el producto recién añadido
+        assertThat(tracker.page(null, 0, 10).ids()).containsExactly(1L);
+        verify(productRepository, times(2)).findBajoStockSnapshots();
+    }
+    
+    private static ProductSnapshot snapshot(Long id, int stock, int minimo, Long categoriaId) {
+        return new ProductSnapshot(id, "Producto", "Descripción", new BigDecimal("2.00"), stock, minimo, categoriaId);
+    }
+}
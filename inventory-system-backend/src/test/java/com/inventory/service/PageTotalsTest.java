@@ -0,0 +1,104 @@
+package com.inventory.service;
+
+import com.inventory.event.CategoryChangedEvent;
+import com.inventory.event.ProductChangedEvent;
+import com.inventory.event.ProductSnapshot;
+import com.inventory.repository.CategoryRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.StockMovementRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Los recálculos tras una escritura son asíncronos: las comprobaciones de que
+ * algo no se recalcula esperan un margen antes de contar las consultas.
+ */
+class PageTotalsTest {
+    
+    private static final long MARGEN_MS = 300;
+    
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final StockMovementRepository stockMovementRepository = mock(StockMovementRepository.class);
+    private final PageTotals totals = new PageTotals(productRepository, categoryRepository, stockMovementRepository,
+        new SimpleMeterRegistry(), 600_000, 600_000, 100, 10);
+    
+    @Test
+    void elTotalSeCacheaYNuncaBajaDeLoQueMuestraLaPagina() {
+        when(productRepository.count()).thenReturn(5L);
+        
+        assertThat(totals.total(PageTotals.Consulta.PRODUCTOS, null, null)).isEqualTo(5);
+        assertThat(totals.total(PageTotals.Consulta.PRODUCTOS, null, null)).isEqualTo(5);
+        verify(productRepository, times(1)).count();
+        
+        // Página 2 de 3 elementos con siguiente: existen al menos 7
+        SliceImpl<String> slice = new SliceImpl<>(List.of("a", "b", "c"), PageRequest.of(1, 3), true);
+        assertThat(totals.page(slice, PageTotals.Consulta.PRODUCTOS, null, null).getTotalElements()).isEqualTo(7);
+    }
+    
+    @Test
+    void unAltaRecalculaElTotalGlobalYElDeSuCategoria() {
+        when(productRepository.count()).thenReturn(5L, 6L);
+        when(productRepository.countByCategoriaId(1L)).thenReturn(2L, 3L);
+        when(productRepository.countByCategoriaId(2L)).thenReturn(4L);
+        totals.total(PageTotals.Consulta.PRODUCTOS, null, null);
+        totals.total(PageTotals.Consulta.PRODUCTOS_CATEGORIA, 1L, null);
+        totals.total(PageTotals.Consulta.PRODUCTOS_CATEGORIA, 2L, null);
+        
+        totals.onProductChanged(new ProductChangedEvent(null, snapshot(1L)));
+        
+        verify(productRepository, timeout(1000).times(2)).count();
+        verify(productRepository, timeout(1000).times(2)).countByCategoriaId(1L);
+        verify(productRepository, after(MARGEN_MS).times(1)).countByCategoriaId(2L);
+    }
+    
+    @Test
+    void unaModificacionNoRecalculaListadosNiBusquedas() {
+        when(productRepository.count()).thenReturn(5L);
+        when(productRepository.countByCategoriaId(1L)).thenReturn(2L);
+        when(productRepository.countSearch("tornillo")).thenReturn(3L);
+        totals.total(PageTotals.Consulta.PRODUCTOS, null, null);
+        totals.total(PageTotals.Consulta.PRODUCTOS_CATEGORIA, 1L, null);
+        totals.total(PageTotals.Consulta.BUSQUEDA, null, "tornillo");
+        
+        totals.onProductChanged(new ProductChangedEvent(snapshot(1L), snapshot(1L)));
+        totals.onCategoryChanged(new CategoryChangedEvent(1L, CategoryChangedEvent.Tipo.ACTUALIZADA));
+        
+        verify(productRepository, after(MARGEN_MS).times(1)).count();
+        verify(productRepository, times(1)).countByCategoriaId(1L);
+        verify(productRepository, times(1)).countSearch("tornillo");
+        verify(categoryRepository, times(0)).count();
+    }
+    
+    @Test
+    void moverUnProductoRecalculaSoloLasCategoriasDeOrigenYDestino() {
+        when(productRepository.count()).thenReturn(5L);
+        when(productRepository.countByCategoriaId(1L)).thenReturn(2L, 1L);
+        when(productRepository.countByCategoriaId(2L)).thenReturn(4L, 5L);
+        totals.total(PageTotals.Consulta.PRODUCTOS, null, null);
+        totals.total(PageTotals.Consulta.PRODUCTOS_CATEGORIA, 1L, null);
+        totals.total(PageTotals.Consulta.PRODUCTOS_CATEGORIA, 2L, null);
+        
+        totals.onProductChanged(new ProductChangedEvent(snapshot(1L), snapshot(2L)));
+        
+        verify(productRepository, timeout(1000).times(2)).countByCategoriaId(1L);
+        verify(productRepository, timeout(1000).times(2)).countByCategoriaId(2L);
+        verify(productRepository, after(MARGEN_MS).times(1)).count();
+    }
+    
+    private static ProductSnapshot snapshot(Long categoriaId) {
+        return new ProductSnapshot(1L, "Producto", "Descripción", BigDecimal.ONE, 10, 5, categoriaId);
+    }
+}
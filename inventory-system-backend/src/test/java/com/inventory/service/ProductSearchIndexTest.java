@@ -0,0 +1,129 @@
+package com.inventory.service;
+
+import com.inventory.event.ProductChangedEvent;
+import com.inventory.event.ProductSnapshot;
+import com.inventory.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+    
+    private final ProductSearchIndex index = new ProductSearchIndex(mock(ProductRepository.class));
+    
+    @Test
+    void ordenaPorRelevanciaYFiltraPorCategoria() {
+        alta(1L, "Tuerca de acero", "Acero galvanizado", 1L);
+        alta(2L, "Acero inoxidable", "Lámina", 1L);
+        alta(3L, "Lámina", "Recubierta de ACERO", 2L);
+        alta(4L, "Tornillo", "Cabeza hexagonal", 1L);
+        
+        // Prefijo del nombre, palabra del nombre y después descripción; sin distinguir acentos
+        assertThat(index.search("acero", null, 0, 10))
+            .isEqualTo(new ProductSearchIndex.SearchResult(List.of(2L, 1L, 3L), 3));
+        assertThat(index.search("lamina", 1L, 0, 10))
+            .isEqualTo(new ProductSearchIndex.SearchResult(List.of(2L), 1));
+        assertThat(index.search("acero", null, 1, 1))
+            .isEqualTo(new ProductSearchIndex.SearchResult(List.of(1L), 3));
+        assertThat(index.search("madera", null, 0, 10).total()).isZero();
+    }
+    
+    @Test
+    void edicionesYBajasActualizanLasListas() {
+        ProductSnapshot tuerca = alta(1L, "Tuerca", "Hexagonal", 1L);
+        ProductSnapshot arandela = snapshot(1L, "Arandela", "Plana", 1L);
+        index.onProductChanged(new ProductChangedEvent(tuerca, arandela));
+        
+        assertThat(index.search("tuerca", null, 0, 10).total()).isZero();
+        assertThat(index.search("arandela", null, 0, 10).ids()).containsExactly(1L);
+        
+        index.onProductChanged(new ProductChangedEvent(arandela, null));
+        assertThat(index.search("arandela", null, 0, 10).total()).isZero();
+        assertThat(index.search("pl", null, 0, 10).total()).isZero();
+    }
+    
+    @Test
+    void paginaCoincideConOrdenarTodasLasCoincidencias() {
+        String[] palabras = {"tornillo", "tuerca", "acero", "perno", "clavo", "broca", "arandela"};
+        Random random = new Random(7);
+        List<ProductSnapshot> productos = new ArrayList<>();
+        // Ids desordenados para que las listas reciban inserciones en medio
+        for (int i = 0; i < 2000; i++) {
+            long id = 1 + random.nextInt(1_000_000);
+            String nombre = palabras[random.nextInt(palabras.length)] + " " + palabras[random.nextInt(palabras.length)];
+            productos.add(alta(id, nombre, "Ref " + i, 1L + random.nextInt(3)));
+        }
+        
+        for (String termino : List.of("tornillo", "ca", "acero perno", "o")) {
+            List<ProductSnapshot> esperados = productos.stream()
+                .filter(producto -> producto.getNombre().contains(termino) || producto.getDescripcion().toLowerCase().contains(termino))
+                .collect(Collectors.toMap(ProductSnapshot::getId, p -> p, (a, b) -> b))
+                .values().stream()
+                .sorted(Comparator.comparingInt((ProductSnapshot producto) -> score(producto.getNombre(), termino)).reversed()
+                    .thenComparing(ProductSnapshot::getNombre)
+                    .thenComparing(ProductSnapshot::getId))
+                .toList();
+            
+            ProductSearchIndex.SearchResult result = index.search(termino, null, 40, 25);
+            assertThat(result.total()).isEqualTo(esperados.size());
+            assertThat(result.ids()).containsExactlyElementsOf(esperados.stream()
+                .skip(40).limit(25).map(ProductSnapshot::getId).toList());
+        }
+    }
+    
+    @Test
+    void cargaInicialNoPisaLoQueLleganLosEventos() throws InterruptedException {
+        ProductRepository repository = mock(ProductRepository.class);
+        ProductSearchIndex carga = new ProductSearchIndex(repository);
+        ProductSnapshot tuerca = snapshot(1L, "Tuerca", "Hexagonal", 1L);
+        ProductSnapshot perno = snapshot(2L, "Perno", "Roscado", 1L);
+        // Mientras la carga lee, un evento renombra el 1 y otro borra el 2: la lectura queda obsoleta
+        when(repository.findSnapshotsAfter(eq(0L), any())).thenAnswer(invocation -> {
+            carga.onProductChanged(new ProductChangedEvent(tuerca, snapshot(1L, "Arandela", "Plana", 1L)));
+            carga.onProductChanged(new ProductChangedEvent(perno, null));
+            return List.of(tuerca, perno, snapshot(3L, "Clavo", "Acero", 2L));
+        });
+        
+        carga.warmUp();
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!carga.isReady() && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        
+        assertThat(carga.isReady()).isTrue();
+        assertThat(carga.search("arandela", null, 0, 10).ids()).containsExactly(1L);
+        assertThat(carga.search("tuerca", null, 0, 10).total()).isZero();
+        assertThat(carga.search("perno", null, 0, 10).total()).isZero();
+        assertThat(carga.search("clavo", null, 0, 10).ids()).containsExactly(3L);
+    }
+    
+    private static int score(String nombre, String termino) {
+        if (nombre.startsWith(termino)) {
+            return 4;
+        }
+        if (nombre.contains(" " + termino)) {
+            return 3;
+        }
+        return nombre.contains(termino) ? 2 : 1;
+    }
+    
+    private ProductSnapshot alta(Long id, String nombre, String descripcion, Long categoriaId) {
+        ProductSnapshot snapshot = snapshot(id, nombre, descripcion, categoriaId);
+        index.onProductChanged(new ProductChangedEvent(null, snapshot));
+        return snapshot;
+    }
+    
+    private static ProductSnapshot snapshot(Long id, String nombre, String descripcion, Long categoriaId) {
+        return new ProductSnapshot(id, nombre, descripcion, BigDecimal.ONE, 10, 5, categoriaId);
+    }
+}
@@ -0,0 +1,278 @@
+package com.inventory.service;
+
+import com.inventory.config.StatementCapture;
+import com.inventory.config.StatementCapture.Sentencia;
+import com.inventory.repository.CategoryRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.StockMovementRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ejecuta cada consulta de ProductRepository, CategoryRepository y
+ * StockMovementRepository, obtiene el plan con EXPLAIN del SQL que genera
+ * Hibernate y devuelve las consultas declaradas como indexadas que recorren
+ * entera alguna de sus tablas indexadas. Necesita el DataSource envuelto por
+ * {@link com.inventory.config.QueryPlanGuardConfig}.
+ *
+ * Cada caso se ejecuta en una transacción que se deshace, así que las
+ * consultas de escritura no modifican datos. Las consultas sin índice
+ * aplicable (búsquedas LIKE, agregados sobre toda la tabla, conteos de la
+ * paginación completa) se listan igualmente, pero solo se informa de su plan.
+ */
+@Slf4j
+public class QueryPlanGuard {
+    
+    // MySQL: "from products p1_0", "join categories c1_0"; el EXPLAIN muestra el alias
+    private static final Pattern ALIAS = Pattern.compile("(?i)\\b(?:from|join)\\s+(\\w+)\\s+(\\w+)");
+    private static final Set<String> PALABRAS_SQL = Set.of(
+        "where", "set", "on", "join", "left", "inner", "cross", "order", "group", "limit", "offset", "fetch", "for");
+    // H2: "/* public.products.tableScan */"
+    private static final Pattern RECORRIDO_H2 = Pattern.compile("(?i)(\\w+)\\.tableScan");
+    
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    
+    private record Caso(String nombre, Set<String> tablasIndexadas, Runnable consulta) {
+    }
+    
+    public QueryPlanGuard(
+            ProductRepository productRepository,
+            CategoryRepository categoryRepository,
+            StockMovementRepository stockMovementRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Devuelve "caso [tablas]" por cada consulta indexada con recorrido
+     * completo; vacío si todas usan sus índices.
+     */
+    public List<String> verify() {
+        boolean h2 = "H2".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName()));
+        
+        List<String> violaciones = new ArrayList<>();
+        int verificados = 0;
+        for (Caso caso : casos()) {
+            List<Sentencia> sentencias = run(caso);
+            if (sentencias.isEmpty()) {
+                log.warn("Plan de consultas - {}: no se ejecutó ninguna sentencia", caso.nombre());
+                continue;
+            }
+            
+            Set<String> recorridas = new LinkedHashSet<>();
+            for (Sentencia sentencia : sentencias) {
+                Plan plan = h2 ? explainH2(sentencia) : explainMySql(sentencia);
+                recorridas.addAll(plan.recorridas());
+                log.debug("Plan de {}:\n{}\n{}", caso.nombre(), sentencia.sql(), plan.texto());
+            }
+            
+            if (caso.tablasIndexadas().isEmpty()) {
+                log.info("Plan de consultas - {}: sin índice exigido, recorre {}", caso.nombre(), recorridas);
+                continue;
+            }
+            verificados++;
+            List<String> sinIndice = recorridas.stream().filter(caso.tablasIndexadas()::contains).toList();
+            if (sinIndice.isEmpty()) {
+                log.info("Plan de consultas - {}: usa índices en {}", caso.nombre(), caso.tablasIndexadas());
+            } else {
+                log.warn("Plan de consultas - {}: recorrido completo de {}", caso.nombre(), sinIndice);
+                violaciones.add(caso.nombre() + " " + sinIndice);
+            }
+        }
+        
+        log.info("Plan de consultas: {} casos con índice verificado, {} con recorrido completo",
+            verificados, violaciones.size());
+        return violaciones;
+    }
+    
+    private List<Sentencia> run(Caso caso) {
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return StatementCapture.capture(() -> {
+                try {
+                    caso.consulta().run();
+                } catch (RuntimeException e) {
+                    // El SQL enviado se analiza aunque la consulta falle con los valores de ejemplo
+                    log.warn("Plan de consultas - {}: la consulta falló ({})", caso.nombre(), e.getMessage());
+                }
+            });
+        });
+    }
+    
+    private record Plan(Set<String> recorridas, String texto) {
+    }
+    
+    private Plan explainH2(Sentencia sentencia) {
+        String texto = String.join("\n", jdbcTemplate.query("EXPLAIN " + sentencia.sql(),
+            ps -> bind(ps, sentencia.parametros()), (rs, fila) -> rs.getString(1)));
+        Set<String> recorridas = new LinkedHashSet<>();
+        Matcher matcher = RECORRIDO_H2.matcher(texto);
+        while (matcher.find()) {
+            recorridas.add(matcher.group(1).toLowerCase(Locale.ROOT));
+        }
+        return new Plan(recorridas, texto);
+    }
+    
+    private Plan explainMySql(Sentencia sentencia) {
+        Map<String, String> tablas = new HashMap<>();
+        Matcher matcher = ALIAS.matcher(sentencia.sql());
+        while (matcher.find()) {
+            if (!PALABRAS_SQL.contains(matcher.group(2).toLowerCase(Locale.ROOT))) {
+                tablas.put(matcher.group(2), matcher.group(1));
+            }
+        }
+        
+        Set<String> recorridas = new LinkedHashSet<>();
+        List<String> filas = jdbcTemplate.query("EXPLAIN " + sentencia.sql(),
+            ps -> bind(ps, sentencia.parametros()), (rs, fila) -> {
+                String tabla = rs.getString("table");
+                String tipo = rs.getString("type");
+                // type=ALL es el recorrido completo; "index" recorre un índice y suele ir con LIMIT
+                if (tabla != null && "ALL".equals(tipo)) {
+                    recorridas.add(tablas.getOrDefault(tabla, tabla).toLowerCase(Locale.ROOT));
+                }
+                return tabla + " type=" + tipo + " key=" + rs.getString("key") + " rows=" + rs.getString("rows");
+            });
+        return new Plan(recorridas, String.join("\n", filas));
+    }
+    
+    private static void bind(PreparedStatement ps, List<Object> parametros) throws SQLException {
+        for (int i = 0; i < parametros.size(); i++) {
+            ps.setObject(i + 1, parametros.get(i));
+        }
+    }
+    
+    private List<Caso> casos() {
+        long productoId = sample("SELECT MIN(id) FROM products");
+        long categoriaId = sample("SELECT MIN(id) FROM categories");
+        LocalDateTime fecha = jdbcTemplate.queryForObject("SELECT MAX(fecha_movimiento) FROM stock_movements",
+            LocalDateTime.class);
+        LocalDateTime hasta = fecha != null ? fecha : LocalDateTime.now();
+        LocalDateTime desde = hasta.minusHours(1);
+        Pageable pagina = PageRequest.of(0, 20);
+        Pageable porId = PageRequest.of(0, 20, Sort.by("id").descending());
+        
+        List<Caso> casos = new ArrayList<>();
+        // ProductRepository
+        casos.add(indexado("producto por id", () -> productRepository.findById(productoId), "products"));
+        casos.add(libre("productos paginados", () -> productRepository.findAllAsDTO(porId)));
+        casos.add(indexado("productos por categoría",
+            () -> productRepository.findByCategoriaId(categoriaId, porId), "products"));
+        casos.add(indexado("producto DTO por id", () -> productRepository.findDTOById(productoId), "products"));
+        casos.add(indexado("productos DTO por ids",
+            () -> productRepository.findAllAsDTOById(List.of(productoId, productoId + 1)), "products"));
+        casos.add(indexado("existe producto en categoría",
+            () -> productRepository.existsByCategoriaId(categoriaId), "products"));
+        casos.add(indexado("productos en categoría",
+            () -> productRepository.countByCategoriaId(categoriaId), "products"));
+        casos.add(indexado("productos en categorías",
+            () -> productRepository.countByCategoriaIds(List.of(categoriaId, categoriaId + 1)), "products"));
+        casos.add(libre("productos por nombre",
+            () -> productRepository.findByNombreContainingIgnoreCase("acero", pagina)));
+        casos.add(libre("búsqueda de productos", () -> productRepository.searchProducts("acero", pagina)));
+        casos.add(indexado("búsqueda en categoría",
+            () -> productRepository.searchProductsByCategory(categoriaId, "acero", pagina), "products"));
+        casos.add(indexado("productos paginados sin total",
+            () -> productRepository.findSliceAsDTO(porId), "products"));
+        casos.add(indexado("productos por categoría sin total",
+            () -> productRepository.findSliceByCategoriaId(categoriaId, porId), "products"));
+        casos.add(libre("búsqueda sin total", () -> productRepository.searchProductsSlice("acero", pagina)));
+        casos.add(indexado("búsqueda en categoría sin total",
+            () -> productRepository.searchProductsByCategorySlice(categoriaId, "acero", pagina), "products"));
+        casos.add(libre("conteo de búsqueda", () -> productRepository.countSearch("acero")));
+        casos.add(indexado("conteo de búsqueda en categoría",
+            () -> productRepository.countSearchByCategory(categoriaId, "acero"), "products"));
+        casos.add(indexado("productos con bajo stock", productRepository::findProductsBajoStock, "products"));
+        casos.add(indexado("snapshots con bajo stock", productRepository::findBajoStockSnapshots, "products"));
+        casos.add(indexado("conteo de bajo stock", productRepository::countProductsBajoStock, "products"));
+        casos.add(libre("valor del inventario", productRepository::calculateTotalInventoryValue));
+        LocalDateTime ahora = LocalDateTime.now();
+        casos.add(indexado("incremento de stock",
+            () -> productRepository.incrementStock(productoId, 1, ahora), "products"));
+        casos.add(indexado("decremento de stock",
+            () -> productRepository.decrementStock(productoId, 1, ahora), "products"));
+        casos.add(indexado("ajuste de stock", () -> productRepository.setStock(productoId, 1, ahora), "products"));
+        casos.add(indexado("snapshot por id", () -> productRepository.findSnapshotById(productoId), "products"));
+        casos.add(indexado("bloqueo de producto", () -> productRepository.findByIdForUpdate(productoId), "products"));
+        casos.add(indexado("bloqueo de productos",
+            () -> productRepository.findAllByIdForUpdate(List.of(productoId, productoId + 1)), "products"));
+        casos.add(indexado("snapshots por lotes",
+            () -> productRepository.findSnapshotsAfter(productoId, PageRequest.of(0, 500)), "products"));
+        
+        // CategoryRepository
+        casos.add(indexado("categoría por id", () -> categoryRepository.findById(categoriaId), "categories"));
+        casos.add(libre("categorías paginadas", () -> categoryRepository.findAll(pagina)));
+        casos.add(libre("categorías sin total", () -> categoryRepository.findSliceBy(pagina)));
+        casos.add(libre("categoría por nombre", () -> categoryRepository.findByNombreIgnoreCase("Categoría 1")));
+        casos.add(libre("existe categoría", () -> categoryRepository.existsByNombreIgnoreCase("Categoría 1")));
+        casos.add(libre("categorías por nombre",
+            () -> categoryRepository.findByNombreContainingIgnoreCase("categ", pagina)));
+        casos.add(libre("categorías con productos", () -> categoryRepository.findAllWithProducts(pagina)));
+        // Id inexistente: solo interesa el plan, no borrar ni chocar con las claves ajenas
+        casos.add(indexado("borrado de categoría", () -> categoryRepository.deleteCategoryById(-1L), "categories"));
+        
+        // StockMovementRepository
+        casos.add(indexado("movimientos de producto",
+            () -> stockMovementRepository.findByProductoId(productoId, pagina), "stock_movements"));
+        casos.add(indexado("historial de producto",
+            () -> stockMovementRepository.findByProductoIdOrderByFechaMovimientoDesc(productoId), "stock_movements"));
+        casos.add(indexado("movimientos por fechas",
+            () -> stockMovementRepository.findByDateRange(desde, hasta), "stock_movements"));
+        casos.add(libre("movimientos paginados", () -> stockMovementRepository.findAllOrderByFechaDesc(pagina)));
+        casos.add(indexado("movimientos sin total",
+            () -> stockMovementRepository.findSliceOrderByFechaDesc(pagina), "stock_movements"));
+        casos.add(indexado("últimos de producto",
+            () -> stockMovementRepository.findTop10ByProductoId(productoId, PageRequest.of(0, 10)), "stock_movements"));
+        casos.add(indexado("últimos movimientos",
+            () -> stockMovementRepository.findLatest(pagina), "stock_movements"));
+        casos.add(indexado("movimientos anteriores al cursor",
+            () -> stockMovementRepository.findBefore(hasta, Long.MAX_VALUE, pagina), "stock_movements"));
+        casos.add(indexado("últimos movimientos de producto",
+            () -> stockMovementRepository.findLatestByProductoId(productoId, pagina), "stock_movements"));
+        casos.add(indexado("movimientos de producto anteriores al cursor",
+            () -> stockMovementRepository.findBeforeByProductoId(productoId, hasta, Long.MAX_VALUE, pagina),
+            "stock_movements"));
+        return casos;
+    }
+    
+    private long sample(String sql) {
+        Long valor = jdbcTemplate.queryForObject(sql, Long.class);
+        return valor != null ? valor : 1L;
+    }
+    
+    private static Caso indexado(String nombre, Runnable consulta, String... tablas) {
+        return new Caso(nombre, Set.of(tablas), consulta);
+    }
+    
+    private static Caso libre(String nombre, Runnable consulta) {
+        return new Caso(nombre, Set.of(), consulta);
+    }
+}
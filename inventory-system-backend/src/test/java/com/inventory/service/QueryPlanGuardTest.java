@@ -0,0 +1,59 @@
+package com.inventory.service;
+
+import com.inventory.config.QueryPlanGuardConfig;
+import com.inventory.repository.CategoryRepository;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.StockMovementRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regresión de planes de consulta sobre el esquema de las migraciones: falla
+ * si alguna consulta declarada como indexada recorre la tabla completa.
+ *
+ * Usa su propia base de datos con datos generados: con tablas casi vacías H2
+ * prefiere recorrerlas enteras y el plan no dice nada del de producción.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:planes;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.url=r2dbc:h2:mem:///planes?options=MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@Import(QueryPlanGuardConfig.class)
+class QueryPlanGuardTest {
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private DatasetSeeder datasetSeeder;
+    
+    @Test
+    void lasConsultasIndexadasUsanSusIndices() {
+        datasetSeeder.seed(new DatasetSeeder.Spec(20, 5000, 50_000, 90, 1.0, 42));
+        
+        QueryPlanGuard guard = new QueryPlanGuard(productRepository, categoryRepository, stockMovementRepository,
+            jdbcTemplate, transactionManager);
+        
+        assertThat(guard.verify()).isEmpty();
+    }
+}
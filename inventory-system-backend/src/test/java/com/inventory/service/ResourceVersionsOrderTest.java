@@ -0,0 +1,88 @@
+package com.inventory.service;
+
+import com.inventory.config.CacheConfig;
+import com.inventory.dto.ProductDTO;
+import com.inventory.event.ProductChangedEvent;
+import com.inventory.event.StockChangedEvent;
+import com.inventory.service.impl.CategoryServiceImpl;
+import com.inventory.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Cuando sube la versión (y con ella el ETag) las cachés, el índice y los
+ * conjuntos en memoria ya tienen que reflejar la escritura. Las aserciones se
+ * hacen dentro del listener: si fallan, el listener no llega a marcar la
+ * comprobación.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ResourceVersionsOrderTest {
+    
+    @SpyBean
+    private ResourceVersions resourceVersions;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CategoryServiceImpl categoryService;
+    
+    @Autowired
+    private ProductSearchIndex searchIndex;
+    
+    @Autowired
+    private LowStockTracker lowStockTracker;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Test
+    void laVersionDelProductoSubeDespuesDeActualizarIndiceYCache() {
+        ProductDTO producto = TestData.producto(productService, categoryService, 10);
+        productService.getProductById(producto.getId());
+        String nombre = "Renombrado " + UUID.randomUUID();
+        
+        AtomicBoolean comprobado = new AtomicBoolean();
+        doAnswer(invocation -> {
+            assertThat(searchIndex.search(nombre, null, 0, 10).ids()).containsExactly(producto.getId());
+            assertThat(cacheManager.getCache(CacheConfig.PRODUCTS).get(producto.getId())).isNull();
+            comprobado.set(true);
+            return invocation.callRealMethod();
+        }).when(resourceVersions).onProductChanged(any(ProductChangedEvent.class));
+        
+        ProductDTO cambios = TestData.copia(producto);
+        cambios.setNombre(nombre);
+        productService.updateProduct(producto.getId(), cambios);
+        
+        assertThat(comprobado).isTrue();
+    }
+    
+    @Test
+    void laVersionSubeDespuesDeActualizarElBajoStock() {
+        ProductDTO producto = TestData.producto(productService, categoryService, 10);
+        productService.getProductById(producto.getId());
+        
+        AtomicBoolean comprobado = new AtomicBoolean();
+        doAnswer(invocation -> {
+            assertThat(lowStockTracker.page(producto.getCategoriaId(), 0, 10).ids()).containsExactly(producto.getId());
+            assertThat(cacheManager.getCache(CacheConfig.PRODUCTS).get(producto.getId())).isNull();
+            comprobado.set(true);
+            return invocation.callRealMethod();
+        }).when(resourceVersions).onStockChanged(any(StockChangedEvent.class));
+        
+        productService.updateStock(producto.getId(), 8, "SALIDA", "Prueba");
+        
+        assertThat(comprobado).isTrue();
+    }
+}
@@ -0,0 +1,78 @@
+package com.inventory.service;
+
+import com.inventory.event.CategoryChangedEvent;
+import com.inventory.event.ProductChangedEvent;
+import com.inventory.event.ProductSnapshot;
+import com.inventory.event.StockChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceVersionsTest {
+    
+    private final ResourceVersions versions = new ResourceVersions(1000);
+    
+    @Test
+    void elEtagDeUnProductoSoloCambiaConSusEscrituras() {
+        String producto1 = versions.etag(ResourceVersions.Recurso.PRODUCTOS, 1L, request("/api/products/1"));
+        String producto2 = versions.etag(ResourceVersions.Recurso.PRODUCTOS, 2L, request("/api/products/2"));
+        String listado = versions.etag(ResourceVersions.Recurso.PRODUCTOS, request("/api/products"));
+        
+        versions.onStockChanged(new StockChangedEvent(snapshot(1L, 10L), snapshot(1L, 10L), null));
+        
+        assertThat(versions.etag(ResourceVersions.Recurso.PRODUCTOS, 1L, request("/api/products/1")))
+            .isNotEqualTo(producto1);
+        assertThat(versions.etag(ResourceVersions.Recurso.PRODUCTOS, 2L, request("/api/products/2")))
+            .isEqualTo(producto2);
+        assertThat(versions.etag(ResourceVersions.Recurso.PRODUCTOS, request("/api/products")))
+            .isNotEqualTo(listado);
+    }
+    
+    @Test
+    void moverUnProductoCambiaLasCategoriasDeOrigenYDestino() {
+        String origen = versions.etag(ResourceVersions.Recurso.CATEGORIAS, 10L, request("/api/categories/10"));
+        String destino = versions.etag(ResourceVersions.Recurso.CATEGORIAS, 20L, request("/api/categories/20"));
+        String otra = versions.etag(ResourceVersions.Recurso.CATEGORIAS, 30L, request("/api/categories/30"));
+        
+        versions.onProductChanged(new ProductChangedEvent(snapshot(1L, 10L), snapshot(1L, 20L)));
+        
+        assertThat(versions.etag(ResourceVersions.Recurso.CATEGORIAS, 10L, request("/api/categories/10")))
+            .isNotEqualTo(origen);
+        assertThat(versions.etag(ResourceVersions.Recurso.CATEGORIAS, 20L, request("/api/categories/20")))
+            .isNotEqualTo(destino);
+        assertThat(versions.etag(ResourceVersions.Recurso.CATEGORIAS, 30L, request("/api/categories/30")))
+            .isEqualTo(otra);
+    }
+    
+    @Test
+    void cambiarUnaCategoriaCambiaElEtagDeTodosLosProductos() {
+        String producto = versions.etag(ResourceVersions.Recurso.PRODUCTOS, 1L, request("/api/products/1"));
+        
+        versions.onCategoryChanged(new CategoryChangedEvent(99L, CategoryChangedEvent.Tipo.ACTUALIZADA));
+        
+        assertThat(versions.etag(ResourceVersions.Recurso.PRODUCTOS, 1L, request("/api/products/1")))
+            .isNotEqualTo(producto);
+    }
+    
+    @Test
+    void losParametrosDistinguenElEtag() {
+        MockHttpServletRequest pagina0 = new MockHttpServletRequest("GET", "/api/products");
+        pagina0.addParameter("page", "0");
+        MockHttpServletRequest pagina1 = new MockHttpServletRequest("GET", "/api/products");
+        pagina1.addParameter("page", "1");
+        
+        assertThat(versions.etag(ResourceVersions.Recurso.PRODUCTOS, new ServletWebRequest(pagina0)))
+            .isNotEqualTo(versions.etag(ResourceVersions.Recurso.PRODUCTOS, new ServletWebRequest(pagina1)));
+    }
+    
+    private static ServletWebRequest request(String uri) {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", uri));
+    }
+    
+    private static ProductSnapshot snapshot(Long id, Long categoriaId) {
+        return new ProductSnapshot(id, "Producto " + id, null, BigDecimal.ONE, 10, 5, categoriaId);
+    }
+}
@@ -0,0 +1,90 @@
+package com.inventory.service;
+
+import com.inventory.dto.StockBatchResultDTO;
+import com.inventory.dto.StockMovementRequestDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockMovementJournalTest {
+    
+    private static final long VENENO = -1L;
+    
+    private final ProductService productService = mock(ProductService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<Long>> lotes = new ArrayList<>();
+    private StockMovementJournal journal;
+    
+    @AfterEach
+    void tearDown() {
+        journal.stop();
+    }
+    
+    @Test
+    void agrupaLasPeticionesDeLaVentanaEnUnSoloCommit() throws Exception {
+        journal = start(200);
+        
+        List<CompletableFuture<StockBatchResultDTO>> futuros = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            futuros.add(journal.submit(request(id)));
+        }
+        for (int i = 0; i < futuros.size(); i++) {
+            assertThat(futuros.get(i).get(5, TimeUnit.SECONDS).getProductoId()).isEqualTo(i + 1L);
+        }
+        
+        // Una ventana de 200 ms recoge las cinco peticiones y las aplica en orden de llegada
+        assertThat(lotes).containsExactly(List.of(1L, 2L, 3L, 4L, 5L));
+        assertThat(meterRegistry.get("inventory.stock.journal.batch.size").summary().max()).isEqualTo(5);
+    }
+    
+    @Test
+    void loteFallidoSeReintentaMovimientoAMovimiento() throws Exception {
+        journal = start(200);
+        
+        CompletableFuture<StockBatchResultDTO> antes = journal.submit(request(1L));
+        CompletableFuture<StockBatchResultDTO> veneno = journal.submit(request(VENENO));
+        CompletableFuture<StockBatchResultDTO> despues = journal.submit(request(2L));
+        
+        assertThat(antes.get(5, TimeUnit.SECONDS).getExitoso()).isTrue();
+        assertThat(despues.get(5, TimeUnit.SECONDS).getExitoso()).isTrue();
+        assertThat(veneno).failsWithin(5, TimeUnit.SECONDS);
+        assertThat(lotes).containsExactly(List.of(1L, VENENO, 2L), List.of(1L), List.of(VENENO), List.of(2L));
+        assertThat(meterRegistry.get("inventory.stock.journal.retries").counter().count()).isEqualTo(1);
+    }
+    
+    private StockMovementJournal start(long flushIntervalMs) {
+        when(productService.updateStockBatch(anyList())).thenAnswer(invocation -> {
+            List<StockMovementRequestDTO> requests = invocation.getArgument(0);
+            synchronized (lotes) {
+                lotes.add(requests.stream().map(StockMovementRequestDTO::getProductoId).toList());
+            }
+            if (requests.stream().anyMatch(request -> request.getProductoId() == VENENO)) {
+                throw new IllegalStateException("Fallo de la transacción");
+            }
+            return requests.stream().map(StockMovementJournalTest::exitoso).toList();
+        });
+        StockMovementJournal journal = new StockMovementJournal(productService, meterRegistry, true, flushIntervalMs, 200, 100);
+        journal.start();
+        return journal;
+    }
+    
+    private static StockMovementRequestDTO request(Long productoId) {
+        return new StockMovementRequestDTO(productoId, "ENTRADA", 1, null);
+    }
+    
+    private static StockBatchResultDTO exitoso(StockMovementRequestDTO request) {
+        StockBatchResultDTO result = new StockBatchResultDTO();
+        result.setProductoId(request.getProductoId());
+        result.setExitoso(true);
+        return result;
+    }
+}
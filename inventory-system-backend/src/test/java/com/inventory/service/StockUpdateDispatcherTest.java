@@ -0,0 +1,125 @@
+package com.inventory.service;
+
+import com.inventory.dto.StockBatchResultDTO;
+import com.inventory.dto.StockMovementRequestDTO;
+import com.inventory.service.impl.ProductServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockUpdateDispatcherTest {
+    
+    private static final long VENENO = -1L;
+    
+    private final ProductService productService = mock(ProductService.class);
+    private final List<Integer> lotes = new ArrayList<>();
+    private StockUpdateDispatcher dispatcher;
+    
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+    
+    @Test
+    void loteFallidoSeReintentaMovimientoAMovimiento() throws Exception {
+        CountDownLatch bloqueo = new CountDownLatch(1);
+        when(productService.updateStockBatch(anyList())).thenAnswer(invocation -> {
+            List<StockMovementRequestDTO> requests = invocation.getArgument(0);
+            synchronized (lotes) {
+                lotes.add(requests.size());
+            }
+            if (requests.get(0).getCantidad() == 0) {
+                bloqueo.await(5, TimeUnit.SECONDS);
+            }
+            // Un movimiento que rompe la transacción entera, como un fallo de la base de datos
+            if (requests.stream().anyMatch(request -> request.getProductoId() == VENENO)) {
+                throw new IllegalStateException("Fallo de la transacción");
+            }
+            return requests.stream().map(StockUpdateDispatcherTest::exitoso).toList();
+        });
+        dispatcher = new StockUpdateDispatcher(productService, new MockEnvironment(), true, 1, 100, 100);
+        dispatcher.start();
+        
+        // El primero retiene al worker para que los siguientes se agrupen en un lote
+        CompletableFuture<StockBatchResultDTO> primero = dispatcher.submit(request(1L, 0));
+        waitForBatches(1);
+        List<CompletableFuture<StockBatchResultDTO>> futuros = new ArrayList<>();
+        futuros.add(dispatcher.submit(request(2L, 1)));
+        futuros.add(dispatcher.submit(request(VENENO, 1)));
+        futuros.add(dispatcher.submit(request(3L, 1)));
+        bloqueo.countDown();
+        
+        assertThat(primero.get(5, TimeUnit.SECONDS).getExitoso()).isTrue();
+        assertThat(futuros.get(0).get(5, TimeUnit.SECONDS).getProductoId()).isEqualTo(2L);
+        assertThat(futuros.get(1)).failsWithin(5, TimeUnit.SECONDS);
+        assertThat(futuros.get(2).get(5, TimeUnit.SECONDS).getProductoId()).isEqualTo(3L);
+        // Lote bloqueante, lote de tres que falla y tres reintentos individuales
+        assertThat(lotes).containsExactly(1, 3, 1, 1, 1);
+    }
+    
+    @Test
+    void lotesNoSuperanElMaximoDeUpdateStockBatch() throws Exception {
+        CountDownLatch bloqueo = new CountDownLatch(1);
+        when(productService.updateStockBatch(anyList())).thenAnswer(invocation -> {
+            List<StockMovementRequestDTO> requests = invocation.getArgument(0);
+            synchronized (lotes) {
+                lotes.add(requests.size());
+            }
+            if (requests.get(0).getCantidad() == 0) {
+                bloqueo.await(5, TimeUnit.SECONDS);
+            }
+            return requests.stream().map(StockUpdateDispatcherTest::exitoso).toList();
+        });
+        // max-coalesce por encima del máximo que acepta updateStockBatch
+        dispatcher = new StockUpdateDispatcher(productService, new MockEnvironment(), true, 1, 5000, 5000);
+        dispatcher.start();
+        
+        CompletableFuture<StockBatchResultDTO> primero = dispatcher.submit(request(1L, 0));
+        waitForBatches(1);
+        List<CompletableFuture<StockBatchResultDTO>> futuros = new ArrayList<>();
+        for (int i = 0; i < ProductServiceImpl.MAX_BATCH_SIZE + 500; i++) {
+            futuros.add(dispatcher.submit(request(2L, 1)));
+        }
+        bloqueo.countDown();
+        
+        assertThat(primero.get(5, TimeUnit.SECONDS).getExitoso()).isTrue();
+        for (CompletableFuture<StockBatchResultDTO> futuro : futuros) {
+            assertThat(futuro.get(5, TimeUnit.SECONDS).getExitoso()).isTrue();
+        }
+        assertThat(lotes).containsExactly(1, ProductServiceImpl.MAX_BATCH_SIZE, 500);
+    }
+    
+    private void waitForBatches(int lotesEsperados) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < limite) {
+            synchronized (lotes) {
+                if (lotes.size() >= lotesEsperados) {
+                    return;
+                }
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("El worker no recogió el primer movimiento");
+    }
+    
+    private static StockMovementRequestDTO request(Long productoId, int cantidad) {
+        return new StockMovementRequestDTO(productoId, "ENTRADA", cantidad, null);
+    }
+    
+    private static StockBatchResultDTO exitoso(StockMovementRequestDTO request) {
+        StockBatchResultDTO result = new StockBatchResultDTO();
+        result.setProductoId(request.getProductoId());
+        result.setExitoso(true);
+        return result;
+    }
+}
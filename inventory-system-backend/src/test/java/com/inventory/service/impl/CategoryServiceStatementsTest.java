@@ -0,0 +1,76 @@
+package com.inventory.service.impl;
+
+import com.inventory.config.QueryPlanGuardConfig;
+import com.inventory.config.StatementCapture;
+import com.inventory.dto.CategoryDTO;
+import com.inventory.service.ProductService;
+import com.inventory.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Número de sentencias SQL de los listados y borrados de categorías: debe ser
+ * el mismo con pocas y con muchas categorías y productos, sin consultas por
+ * cada categoría ni carga de su colección de productos.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:sentencias;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.url=r2dbc:h2:mem:///sentencias?options=MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@Import(QueryPlanGuardConfig.class)
+class CategoryServiceStatementsTest {
+    
+    // Página, COUNT del total y COUNT agrupado de productos
+    private static final int MAX_SENTENCIAS_LISTADO = 3;
+    // Comprobación de productos asociados y DELETE
+    private static final int MAX_SENTENCIAS_BORRADO = 2;
+    
+    @Autowired
+    private CategoryServiceImpl categoryService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Test
+    void listadoYBorradoNoCrecenConLosDatos() {
+        poblar(3, 2);
+        List<StatementCapture.Sentencia> listadoPocas = listar();
+        List<StatementCapture.Sentencia> borradoPocas = borrar();
+        
+        poblar(30, 10);
+        List<StatementCapture.Sentencia> listadoMuchas = listar();
+        List<StatementCapture.Sentencia> borradoMuchas = borrar();
+        
+        assertThat(listadoPocas).isNotEmpty().hasSizeLessThanOrEqualTo(MAX_SENTENCIAS_LISTADO);
+        assertThat(listadoMuchas).hasSameSizeAs(listadoPocas);
+        assertThat(borradoPocas).isNotEmpty().hasSizeLessThanOrEqualTo(MAX_SENTENCIAS_BORRADO);
+        assertThat(borradoMuchas).hasSameSizeAs(borradoPocas);
+    }
+    
+    private void poblar(int categorias, int productosPorCategoria) {
+        for (int i = 0; i < categorias; i++) {
+            CategoryDTO categoria = TestData.categoria(categoryService);
+            for (int j = 0; j < productosPorCategoria; j++) {
+                TestData.producto(productService, categoria.getId(), "Producto " + categoria.getId() + "-" + j, 10);
+            }
+        }
+    }
+    
+    // Una sola página con todas las categorías, para que el N+1 se notara
+    private List<StatementCapture.Sentencia> listar() {
+        return StatementCapture.capture(() -> categoryService.getAllCategories(PageRequest.of(0, 1000)));
+    }
+    
+    private List<StatementCapture.Sentencia> borrar() {
+        CategoryDTO vacia = TestData.categoria(categoryService);
+        return StatementCapture.capture(() -> categoryService.deleteCategory(vacia.getId()));
+    }
+}
@@ -0,0 +1,82 @@
+package com.inventory.service.impl;
+
+import com.inventory.dto.CategoryDTO;
+import com.inventory.dto.FormatoArchivo;
+import com.inventory.dto.ImportResultDTO;
+import com.inventory.dto.ProductDTO;
+import com.inventory.entity.Product;
+import com.inventory.repository.ProductRepository;
+import com.inventory.service.ProductService;
+import com.inventory.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductImportServiceTest {
+    
+    @Autowired
+    private ProductImportServiceImpl productImportService;
+    
+    @Autowired
+    private ExportServiceImpl exportService;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CategoryServiceImpl categoryService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Test
+    void laExportacionCsvSeVuelveAImportar() {
+        String nombre = "Export " + UUID.randomUUID();
+        ProductDTO producto = TestData.producto(productService, categoryService, 3);
+        producto.setNombre(nombre);
+        producto.setDescripcion("Primera línea, con coma\nsegunda \"entre comillas\"\r\ntercera");
+        productService.updateProduct(producto.getId(), producto);
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportProducts(out, FormatoArchivo.CSV);
+        ImportResultDTO result = productImportService.importProducts(
+            new ByteArrayInputStream(out.toByteArray()), FormatoArchivo.CSV);
+        
+        assertThat(result.getErrores()).isEmpty();
+        assertThat(result.getImportadas()).isEqualTo(result.getTotalFilas());
+        List<Product> copias = productRepository.findAll().stream()
+            .filter(product -> product.getNombre().equals(nombre))
+            .toList();
+        assertThat(copias).hasSize(2);
+        assertThat(copias).allSatisfy(copia -> assertThat(copia.getDescripcion()).isEqualTo(producto.getDescripcion()));
+    }
+    
+    @Test
+    void unaFilaQueFallaAlGuardarNoArrastraASuBloque() {
+        CategoryDTO categoria = TestData.categoria(categoryService);
+        // El precio pasa la validación del DTO pero no cabe en DECIMAL(10,2)
+        String csv = "nombre,descripcion,precio,stockActual,categoriaId\n" +
+            "Fila buena 1,Descripción,10.00,1," + categoria.getId() + "\n" +
+            "Fila mala,Descripción,1000000000.00,1," + categoria.getId() + "\n" +
+            "\n" +
+            "Fila buena 2,\"Descripción\nen dos líneas\",10.00,0," + categoria.getId() + "\n";
+        
+        ImportResultDTO result = productImportService.importProducts(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), FormatoArchivo.CSV);
+        
+        assertThat(result.getTotalFilas()).isEqualTo(3);
+        assertThat(result.getImportadas()).isEqualTo(2);
+        assertThat(result.getFallidas()).isEqualTo(1);
+        assertThat(result.getErrores()).extracting(ImportResultDTO.ImportErrorDTO::getFila).containsExactly(3L);
+    }
+}
@@ -0,0 +1,50 @@
+package com.inventory.service.impl;
+
+import com.inventory.dto.ProductDTO;
+import com.inventory.dto.StockBatchResultDTO;
+import com.inventory.dto.StockMovementRequestDTO;
+import com.inventory.repository.ProductRepository;
+import com.inventory.service.ProductService;
+import com.inventory.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductServiceBatchTest {
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CategoryServiceImpl categoryService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Test
+    void elementoInvalidoFallaSoloEseElemento() {
+        ProductDTO producto = TestData.producto(productService, categoryService, 10);
+        
+        List<StockBatchResultDTO> resultados = productService.updateStockBatch(List.of(
+            new StockMovementRequestDTO(producto.getId(), "ENTRADA", 5, "x".repeat(301)),
+            new StockMovementRequestDTO(null, "ENTRADA", 5, null),
+            new StockMovementRequestDTO(producto.getId(), null, 5, null),
+            new StockMovementRequestDTO(producto.getId(), "ENTRADA", 5, "Reposición")));
+        
+        assertThat(resultados).extracting(StockBatchResultDTO::getExitoso).containsExactly(false, false, false, true);
+        assertThat(resultados).extracting(StockBatchResultDTO::getMensaje).containsExactly(
+            "El motivo no puede superar 300 caracteres",
+            "El producto es obligatorio",
+            "El tipo de movimiento es obligatorio",
+            null);
+        
+        // El movimiento válido se aplicó aunque el resto del lote no fuera válido
+        assertThat(productRepository.findById(producto.getId()).orElseThrow().getStockActual()).isEqualTo(15);
+    }
+}
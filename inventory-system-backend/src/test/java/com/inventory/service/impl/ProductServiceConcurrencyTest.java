@@ -0,0 +1,132 @@
+package com.inventory.service.impl;
+
+import com.inventory.dto.ProductDTO;
+import com.inventory.dto.StockBatchResultDTO;
+import com.inventory.dto.StockMovementRequestDTO;
+import com.inventory.entity.StockMovement;
+import com.inventory.repository.ProductRepository;
+import com.inventory.repository.StockMovementRepository;
+import com.inventory.service.ProductService;
+import com.inventory.support.TestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductServiceConcurrencyTest {
+    
+    private static final int STOCK_INICIAL = 1000;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CategoryServiceImpl categoryService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+    
+    @Test
+    void editarProductoNoPierdeMovimientosConcurrentes() throws Exception {
+        ProductDTO producto = TestData.producto(productService, categoryService, STOCK_INICIAL);
+        int escritores = 4;
+        int editores = 4;
+        int repeticiones = 50;
+        
+        ExecutorService executor = Executors.newFixedThreadPool(escritores + editores);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+        try {
+            for (int i = 0; i < escritores; i++) {
+                String tipo = i % 2 == 0 ? "ENTRADA" : "SALIDA";
+                tareas.add(executor.submit(() -> {
+                    salida.await();
+                    for (int j = 0; j < repeticiones; j++) {
+                        productService.updateStock(producto.getId(), 3, tipo, "Prueba concurrente");
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < editores; i++) {
+                int editor = i;
+                tareas.add(executor.submit(() -> {
+                    salida.await();
+                    for (int j = 0; j < repeticiones; j++) {
+                        ProductDTO cambios = TestData.copia(producto);
+                        cambios.setPrecio(BigDecimal.valueOf(10 + editor * repeticiones + j));
+                        // El stock del DTO está desactualizado a propósito: la edición no debe escribirlo
+                        cambios.setStockActual(STOCK_INICIAL);
+                        productService.updateProduct(producto.getId(), cambios);
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        // Tantas entradas como salidas de 3 unidades: el stock vuelve al inicial
+        int stockFinal = productRepository.findById(producto.getId()).orElseThrow().getStockActual();
+        assertThat(stockFinal).isEqualTo(STOCK_INICIAL);
+        
+        // Y cada movimiento enlaza con el anterior: ninguno se aplicó sobre un stock sobrescrito
+        List<StockMovement> movimientos = new ArrayList<>(
+            stockMovementRepository.findByProductoIdOrderByFechaMovimientoDesc(producto.getId()));
+        movimientos.sort(Comparator.comparing(StockMovement::getId));
+        assertThat(movimientos).hasSize(escritores * repeticiones + 1);
+        for (int i = 1; i < movimientos.size(); i++) {
+            assertThat(movimientos.get(i).getStockAnterior()).isEqualTo(movimientos.get(i - 1).getStockNuevo());
+        }
+        assertThat(movimientos.get(movimientos.size() - 1).getStockNuevo()).isEqualTo(stockFinal);
+    }
+    
+    @Test
+    void cantidadCeroSeRechazaIgualEnMovimientoYLote() {
+        ProductDTO producto = TestData.producto(productService, categoryService, 10);
+        
+        assertThatThrownBy(() -> productService.updateStock(producto.getId(), 0, "ENTRADA", null))
+            .hasMessage("El movimiento no modifica el stock");
+        assertThatThrownBy(() -> productService.updateStock(producto.getId(), 0, "SALIDA", null))
+            .hasMessage("El movimiento no modifica el stock");
+        assertThatThrownBy(() -> productService.updateStock(producto.getId(), 10, "AJUSTE", null))
+            .hasMessage("El movimiento no modifica el stock");
+        assertThatThrownBy(() -> productService.updateStock(producto.getId(), -1, "ENTRADA", null))
+            .hasMessage("Cantidad inválida");
+        
+        List<StockBatchResultDTO> resultados = productService.updateStockBatch(List.of(
+            new StockMovementRequestDTO(producto.getId(), "ENTRADA", 0, null),
+            new StockMovementRequestDTO(producto.getId(), "SALIDA", 0, null),
+            new StockMovementRequestDTO(producto.getId(), "AJUSTE", 10, null),
+            new StockMovementRequestDTO(producto.getId(), "ENTRADA", -1, null)));
+        assertThat(resultados).extracting(StockBatchResultDTO::getMensaje).containsExactly(
+            "El movimiento no modifica el stock",
+            "El movimiento no modifica el stock",
+            "El movimiento no modifica el stock",
+            "Cantidad inválida");
+        
+        // El AJUSTE a cero sí es un movimiento válido en ambos caminos
+        productService.updateStock(producto.getId(), 0, "AJUSTE", null);
+        assertThat(productRepository.findById(producto.getId()).orElseThrow().getStockActual()).isZero();
+    }
+}
@@ -0,0 +1,51 @@
+package com.inventory.support;
+
+import com.inventory.dto.CategoryDTO;
+import com.inventory.dto.ProductDTO;
+import com.inventory.service.ProductService;
+import com.inventory.service.impl.CategoryServiceImpl;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Datos de prueba creados a través de los servicios, para que pasen por los
+ * mismos eventos que en producción. Los nombres son únicos porque todas las
+ * pruebas comparten la misma base de datos en memoria.
+ */
+public final class TestData {
+    
+    private TestData() {
+    }
+    
+    public static CategoryDTO categoria(CategoryServiceImpl categoryService) {
+        CategoryDTO categoria = new CategoryDTO();
+        categoria.setNombre("Cat " + UUID.randomUUID().toString().substring(0, 8));
+        return categoryService.createCategory(categoria);
+    }
+    
+    public static ProductDTO producto(ProductService productService, Long categoriaId, String nombre, int stock) {
+        ProductDTO producto = new ProductDTO();
+        producto.setNombre(nombre);
+        producto.setDescripcion("Producto de prueba");
+        producto.setPrecio(BigDecimal.TEN);
+        producto.setStockActual(stock);
+        producto.setStockMinimo(5);
+        producto.setCategoriaId(categoriaId);
+        return productService.createProduct(producto);
+    }
+    
+    public static ProductDTO producto(ProductService productService, CategoryServiceImpl categoryService, int stock) {
+        return producto(productService, categoria(categoryService).getId(), "Producto " + UUID.randomUUID(), stock);
+    }
+    
+    public static ProductDTO copia(ProductDTO producto) {
+        ProductDTO copia = new ProductDTO();
+        copia.setNombre(producto.getNombre());
+        copia.setDescripcion(producto.getDescripcion());
+        copia.setPrecio(producto.getPrecio());
+        copia.setStockActual(producto.getStockActual());
+        copia.setStockMinimo(producto.getStockMinimo());
+        copia.setCategoriaId(producto.getCategoriaId());
+        return copia;
+    }
+}